@@ -46,6 +46,7 @@ public class Main extends Application {
                 }
         );
 
+        System.out.println("Slider backend: " + Masks.SLIDERS.name());
         System.out.println("Running test with FEN" + fenString);
         System.out.println("=== Running perft suite ===");
         PerftRunner.runPerftSuite(List.of(startPos), masks);
@@ -82,9 +83,7 @@ public class Main extends Application {
 
                 long b = 1L << 60;
 
-                long attacks =
-                        ((b & Masks.NOT_FILE_H) >>> 7) |   // attacker from sq-7
-                                ((b & Masks.NOT_FILE_A) >>> 9);    // attacker from sq-9
+                long attacks = Attacks.blackPawnAttacks(b);
 
                 view.setDebugBitboard(attacks);
                 view.draw();
@@ -3,18 +3,193 @@ package org.quinnton.chess.bot;
 import org.quinnton.chess.core.Board;
 import org.quinnton.chess.core.Move;
 import org.quinnton.chess.core.MoveGen;
+import org.quinnton.chess.core.MoveList;
+import org.quinnton.chess.core.Piece;
+
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class Bot {
 
-    private static final int MATE = 1_000_000;
-    private static final int MAX_MOVES = 256;
+    static final int MATE = 1_000_000;
+    static final int MAX_PLY = 128;
+    // larger than any mate score but small enough that beta - alpha cannot overflow
+    static final int INF = MATE + 1;
+
+    // how often (in nodes) the clock is read during a limited search
+    private static final int CHECK_EVERY = 1024;
+
+    // root aspiration window (centipawns) and the first depth it is used at
+    private static final int ASPIRATION_DELTA = 50;
+    private static final int ASPIRATION_MIN_DEPTH = 4;
+
+    // history values stay within +/- MAX_HISTORY (gravity update, see updateHistory)
+    private static final int MAX_HISTORY = 16_384;
+
+    // quiescence: a capture that cannot lift stand-pat + victim + margin to alpha is skipped
+    private static final int DELTA_MARGIN = 200;
+
+    // selectivity margins (centipawns, per remaining depth)
+    private static final int REVERSE_FUTILITY_MARGIN = 120;
+    private static final int REVERSE_FUTILITY_DEPTH = 3;
+    private static final int[] FUTILITY_MARGIN = {0, 150, 300};
+    private static final int NULL_MOVE_MIN_DEPTH = 3;
+    private static final int LMR_MIN_DEPTH = 3;
+    private static final int LMR_MIN_MOVES = 3;
+
+    // scores past this are mates (the one threshold, also used by the TT's ply
+    // adjustment); they must not come out of a pruning shortcut
+    static final int MATE_BOUND = MATE - MAX_PLY;
+
+    // ------------------------------------------------------------
+    // Selectivity toggles, for benchmarking strength against node savings.
+    // All on by default; -Dchess.search.<name>=false turns one off.
+    // ------------------------------------------------------------
+    public boolean useNullMove = feature("nullMove");
+    public boolean useLateMoveReductions = feature("lmr");
+    public boolean useReverseFutility = feature("reverseFutility");
+    public boolean useFutility = feature("futility");
+    public boolean useCheckExtensions = feature("checkExtensions");
+
+    // ------------------------------------------------------------
+    // Lazy SMP: helper bots search the same root on their own Board.copy()
+    // and share this bot's transposition table. Only the main bot reports.
+    // ------------------------------------------------------------
+    public static final String THREADS_PROPERTY = "chess.threads";
+
+    private Bot[] helpers = new Bot[0];
+    int helperId; // 0 = main bot; helpers stagger their depths and print nothing
+
+    // ------------------------------------------------------------
+    // Root splitting: the alternative scheduler (see RootSplitSearch).
+    // -Dchess.rootSplit=true or setRootSplit(true); findBestMove then
+    // splits the root moves over getThreads() threads instead.
+    // ------------------------------------------------------------
+    public static final String ROOT_SPLIT_PROPERTY = "chess.rootSplit";
+
+    private RootSplitSearch rootSplit;
 
     private long nodes;
+    private long qnodes;
     private long startNanos;
+    private int aspirationFails;
+
+    // ordering quality: beta cutoffs and how many came from the first move searched
+    private long cutoffs;
+    private long firstMoveCutoffs;
+
+    // how often each selectivity feature fired
+    private long nullMoveCutoffs;
+    private long reverseFutilityCutoffs;
+    private long futilityPrunes;
+    private long lateMoveReductions;
+
+    // transposition table use by this thread (summed over threads when printed)
+    private long ttProbes;
+    private long ttHits;
+
+    // limits for the current search (<= 0 = unlimited) and the abort flag
+    private long maxMillis;
+    private long maxNodes;
+    private boolean aborted;
+
+    // stop token of the current search, shared with its helpers; every search
+    // gets a fresh one, so a stop() arriving after a search cannot end the next
+    private volatile AtomicBoolean stopFlag = new AtomicBoolean();
+
+    // one move slot, staged picker and two killer slots per ply, allocated once
+    private final MoveList moveList = new MoveList(MAX_PLY + 1);
+    private final MovePicker[] pickers = new MovePicker[MAX_PLY];
+    private final int[][] killers = new int[MAX_PLY][2];
+
+    // butterfly history [side][from][to] flattened (MovePicker.historyIndex)
+    // and counter moves [piece id][to] of the opponent's last move
+    private final int[] history = new int[2 * 64 * 64];
+    private final int[] counterMoves = new int[13 * 64];
+
+    // move made at each ply, and the quiets tried at each ply (for history maluses)
+    private final int[] playedMove = new int[MAX_PLY + 1];
+    private final int[][] quietsTried = new int[MAX_PLY][Board.MAX_MOVES];
+
+    // triangular PV table: pv[ply][ply..pvLength[ply]) is the line from ply
+    private final int[][] pv = new int[MAX_PLY + 1][MAX_PLY + 1];
+    private final int[] pvLength = new int[MAX_PLY + 1];
+
+    // PV of the last completed iteration, searched first in the next one
+    private final int[] prevPv = new int[MAX_PLY + 1];
+    private int prevPvLength;
+    private boolean followPv;
+
+    private final TranspositionTable tt;
+
+    // result of the last completed iteration
+    private int completedDepth;
+    private int completedScore;
+
+    public Bot() {
+        this(new TranspositionTable(TranspositionTable.sizeMbFromProperty()));
+        setThreads(Integer.getInteger(THREADS_PROPERTY, 1));
+        setRootSplit(Boolean.getBoolean(ROOT_SPLIT_PROPERTY));
+    }
+
+    public Bot(TranspositionTable tt) {
+        this.tt = tt;
+        for (int i = 0; i < MAX_PLY; i++) pickers[i] = new MovePicker(history);
+    }
+
+    public TranspositionTable getTranspositionTable() {
+        return tt;
+    }
+
+    /** Total search threads (this one plus helpers); 1 = single-threaded. */
+    public final void setThreads(int threads) {
+        helpers = new Bot[Math.max(0, threads - 1)];
+        for (int i = 0; i < helpers.length; i++) {
+            helpers[i] = new Bot(tt);
+            helpers[i].helperId = i + 1;
+        }
+        if (rootSplit != null) setRootSplit(true); // re-created for the new thread count
+    }
 
-    private void resetStats() {
+    public final int getThreads() {
+        return helpers.length + 1;
+    }
+
+    /**
+     * Root-split mode for findBestMove: deterministic with selectivity off,
+     * see RootSplitSearch. Timed searches keep using Lazy SMP.
+     */
+    public final void setRootSplit(boolean enabled) {
+        if (rootSplit != null) rootSplit.shutdown();
+        rootSplit = enabled ? new RootSplitSearch(tt, getThreads()) : null;
+    }
+
+    /**
+     * Asks the running search to stop; it returns the last completed
+     * iteration. Once a search has finished this has no effect.
+     */
+    public void stop() {
+        stopFlag.set(true);
+    }
+
+    void resetStats() {
         nodes = 0;
+        qnodes = 0;
+        aspirationFails = 0;
+        cutoffs = 0;
+        firstMoveCutoffs = 0;
+        nullMoveCutoffs = 0;
+        reverseFutilityCutoffs = 0;
+        futilityPrunes = 0;
+        lateMoveReductions = 0;
+        ttProbes = 0;
+        ttHits = 0;
         startNanos = System.nanoTime();
+        for (int[] k : killers) {
+            k[0] = 0;
+            k[1] = 0;
+        }
+        // history is kept between searches but aged so old games fade out
+        for (int i = 0; i < history.length; i++) history[i] /= 2;
     }
 
     private long elapsedMillis() {
@@ -25,149 +200,574 @@ public class Bot {
         return nodes;
     }
 
-    public int alphaBeta(Board board, int depth, int ply, int alpha, int beta) {
-        nodes++;
+    /** Percentage of beta cutoffs produced by the first move searched. */
+    public double firstMoveCutoffRate() {
+        return cutoffs > 0 ? (firstMoveCutoffs * 100.0) / cutoffs : 0.0;
+    }
 
-        int[] moves = new int[MAX_MOVES];
-        int moveCount = MoveGen.generateLegalMovesFlat(board, board.masks, moves);
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
 
-        if (moveCount == 0) {
-            boolean whiteToMove = board.getTurnCounter();
-            boolean inCheck = whiteToMove ? board.whiteInCheck : board.blackInCheck;
+    /** Score of the last completed iteration, from White's POV. */
+    public int getCompletedScore() {
+        return completedScore;
+    }
+
+    /**
+     * Takes over another bot's selectivity toggles and stop token (helpers and
+     * root-split workers), so a stop() on from ends this bot's search too.
+     */
+    void copySettings(Bot from) {
+        stopFlag = from.stopFlag;
+        useNullMove = from.useNullMove;
+        useLateMoveReductions = from.useLateMoveReductions;
+        useReverseFutility = from.useReverseFutility;
+        useFutility = from.useFutility;
+        useCheckExtensions = from.useCheckExtensions;
+    }
+
+    /** Starts a fresh stop token for a search run by this bot (see stopFlag). */
+    AtomicBoolean newStopFlag() {
+        AtomicBoolean stop = new AtomicBoolean();
+        stopFlag = stop;
+        return stop;
+    }
+
+    void setCompleted(int depth, int whiteScore) {
+        completedDepth = depth;
+        completedScore = whiteScore;
+    }
+
+    private static boolean feature(String name) {
+        return Boolean.parseBoolean(System.getProperty("chess.search." + name, "true"));
+    }
+
+    long getTtProbes() {
+        return ttProbes;
+    }
+
+    long getTtHits() {
+        return ttHits;
+    }
+
+    /** Probe and hit counts are the sums over every thread that searched. */
+    static void printHashStats(TranspositionTable tt, long probes, long hits) {
+        System.out.printf(
+                "TT size=%dMB probes=%d hit=%.1f%% fill=%d/1000%n",
+                tt.sizeMb(), probes, probes > 0 ? (hits * 100.0) / probes : 0.0, tt.fillPermille()
+        );
+    }
+
+    /** Side-to-move score with no legal moves: mated (ply-adjusted) or stalemate. */
+    private int terminalScore(Board board, int ply) {
+        boolean whiteToMove = board.getTurnCounter();
+        boolean inCheck = whiteToMove ? board.whiteInCheck : board.blackInCheck;
+        return inCheck ? -MATE + ply : 0;
+    }
+
+    /** Evaluate works from White's POV; negamax wants the side to move's. */
+    private static int evaluate(Board board) {
+        int score = board.evaluate.score();
+        return board.getTurnCounter() ? score : -score;
+    }
+
+    private void storeKiller(int ply, int m) {
+        int[] k = killers[ply];
+        if (k[0] != m) {
+            k[1] = k[0];
+            k[0] = m;
+        }
+    }
 
-            if (inCheck) {
-                return whiteToMove ? (-MATE + ply) : (MATE - ply);
+    /** Gravity update: moves the entry towards +/- MAX_HISTORY, never past it. */
+    private void updateHistory(int m, int bonus) {
+        int i = MovePicker.historyIndex(m);
+        history[i] += bonus - history[i] * Math.abs(bonus) / MAX_HISTORY;
+    }
+
+    private static int counterIndex(int prev) {
+        return (Move.pieceId(prev) << 6) | Move.to(prev);
+    }
+
+    /** Polled every CHECK_EVERY nodes; once true the whole search unwinds. */
+    private boolean shouldStop() {
+        if (stopFlag.get()) return true;
+        if (maxNodes > 0 && nodes >= maxNodes) return true;
+        return maxMillis > 0 && elapsedMillis() >= maxMillis;
+    }
+
+    /** Null move is unsafe in pawn endings (zugzwang), so it needs a piece besides pawns and king. */
+    private static boolean hasNonPawnMaterial(Board board, boolean white) {
+        return (board.getBitboard(white ? Piece.WN : Piece.BN)
+                | board.getBitboard(white ? Piece.WB : Piece.BB)
+                | board.getBitboard(white ? Piece.WR : Piece.BR)
+                | board.getBitboard(white ? Piece.WQ : Piece.BQ)) != 0;
+    }
+
+    private void updatePv(int ply, int m) {
+        int[] line = pv[ply];
+        int[] child = pv[ply + 1];
+        line[ply] = m;
+        int len = pvLength[ply + 1];
+        for (int i = ply + 1; i < len; i++) line[i] = child[i];
+        pvLength[ply] = Math.max(len, ply + 1);
+    }
+
+    /**
+     * Negamax principal variation search. Scores are from the side to move's
+     * POV. The first move of a node gets the full window; the rest get a null
+     * window and are re-searched only if they land inside (alpha, beta).
+     */
+    private int pvs(Board board, int depth, int ply, int alpha, int beta) {
+        nodes++;
+        pvLength[ply] = ply;
+
+        if ((nodes & (CHECK_EVERY - 1)) == 0 && shouldStop()) aborted = true;
+        if (aborted) return 0;
+
+        boolean whiteToMove = board.getTurnCounter();
+        boolean inCheck = whiteToMove ? board.whiteInCheck : board.blackInCheck;
+
+        // check extension: never drop into quiescence while in check
+        if (inCheck && useCheckExtensions && ply < MAX_PLY / 2) depth++;
+
+        if (depth == 0 || ply >= MAX_PLY) return quiescence(board, ply, alpha, beta);
+
+        boolean pvNode = beta - alpha > 1;
+        int alphaOrig = alpha;
+
+        long key = board.getZobristKey();
+        long entry = tt.probe(key);
+        ttProbes++;
+        if (entry != 0) ttHits++;
+        int hashMove = 0;
+        if (entry != 0) {
+            hashMove = TranspositionTable.moveOf(entry);
+            // PV nodes (and so the root) always search, keeping the PV intact
+            if (!pvNode && TranspositionTable.depthOf(entry) >= depth) {
+                int ttScore = TranspositionTable.scoreOf(entry, ply);
+                switch (TranspositionTable.boundOf(entry)) {
+                    case TranspositionTable.BOUND_EXACT -> { return ttScore; }
+                    case TranspositionTable.BOUND_LOWER -> { if (ttScore >= beta) return ttScore; }
+                    case TranspositionTable.BOUND_UPPER -> { if (ttScore <= alpha) return ttScore; }
+                    default -> { }
+                }
             }
-            return 0; // stalemate
         }
 
-        if (depth == 0) {
-            return board.evaluate.score();
+        int prev = ply > 0 ? playedMove[ply - 1] : 0;
+        int staticEval = inCheck ? -INF : evaluate(board);
+
+        if (!pvNode && !inCheck && Math.abs(beta) < MATE_BOUND) {
+            // reverse futility: far enough above beta that a shallow search will not fall back
+            if (useReverseFutility && depth <= REVERSE_FUTILITY_DEPTH
+                    && staticEval - REVERSE_FUTILITY_MARGIN * depth >= beta) {
+                reverseFutilityCutoffs++;
+                return staticEval;
+            }
+
+            // null move: if passing still fails high, a real move will too.
+            // prev == 0 means the last move was already a null move.
+            if (useNullMove && depth >= NULL_MOVE_MIN_DEPTH && prev != 0
+                    && staticEval >= beta && hasNonPawnMaterial(board, whiteToMove)) {
+                int r = 2 + depth / 4;
+
+                playedMove[ply] = 0;
+                board.makeNullMove();
+                int val = -pvs(board, Math.max(depth - 1 - r, 0), ply + 1, -beta, -beta + 1);
+                board.unmakeNullMove();
+
+                if (aborted) return 0;
+                if (val >= beta) {
+                    nullMoveCutoffs++;
+                    return val >= MATE_BOUND ? beta : val;
+                }
+            }
         }
 
-        boolean maximizing = board.getTurnCounter();
+        // futility: near the leaves, quiet moves cannot lift a hopeless eval to alpha
+        boolean futile = useFutility && !pvNode && !inCheck && depth < FUTILITY_MARGIN.length
+                && Math.abs(alpha) < MATE_BOUND
+                && staticEval + FUTILITY_MARGIN[depth] <= alpha;
+
+        // along the previous iteration's PV, its move goes first
+        int pvMove = (followPv && ply < prevPvLength) ? prevPv[ply] : 0;
+        if (pvMove != 0) hashMove = pvMove;
+        boolean onPv = followPv;
 
-        if (maximizing) {
-            int best = Integer.MIN_VALUE;
+        int best = -INF;
+        int bestMove = 0;
+        int searched = 0;
+        int quietCount = 0;
 
-            for (int i = 0; i < moveCount; i++) {
-                int m = moves[i];
+        int counter = prev != 0 ? counterMoves[counterIndex(prev)] : 0;
 
-                Evaluate.EvalUndo undo = board.evaluate.updateMakeMove(m);
-                board.makeMoveInternal(m);
+        MovePicker picker = pickers[ply];
+        picker.init(board, moveList, ply, hashMove, killers[ply][0], killers[ply][1], counter);
 
-                int val = alphaBeta(board, depth - 1, ply + 1, alpha, beta);
+        int m;
+        while ((m = picker.next()) != 0) {
+            followPv = onPv && m == pvMove;
+            boolean quiet = !Move.isCapture(m) && !Move.isPromotion(m);
 
+            playedMove[ply] = m;
+            board.evaluate.updateMakeMove(m);
+            board.makeMoveInternal(m);
+
+            boolean givesCheck = whiteToMove ? board.blackInCheck : board.whiteInCheck;
+
+            if (futile && searched > 0 && quiet && !givesCheck) {
                 board.unmakeMoveInternal(m);
-                board.evaluate.updateUnmakeMove(undo);
+                board.evaluate.updateUnmakeMove();
+                followPv = false;
+                futilityPrunes++;
+                continue;
+            }
 
-                if (val > best) best = val;
-                if (best > alpha) alpha = best;
+            // late move reduction: quiet moves this far down the list rarely matter
+            int r = 0;
+            if (useLateMoveReductions && depth >= LMR_MIN_DEPTH && searched >= LMR_MIN_MOVES
+                    && quiet && !inCheck && !givesCheck) {
+                r = 1 + (searched >= 8 ? 1 : 0);
+                int h = history[MovePicker.historyIndex(m)];
+                if (h > MAX_HISTORY / 2) r--;
+                else if (h < -MAX_HISTORY / 2) r++;
+                if (pvNode) r--;
+                r = Math.max(0, Math.min(r, depth - 2));
+                if (r > 0) lateMoveReductions++;
+            }
 
-                if (alpha >= beta) {
-                    return best;
+            int val;
+            if (searched == 0) {
+                val = -pvs(board, depth - 1, ply + 1, -beta, -alpha);
+            } else {
+                val = -pvs(board, depth - 1 - r, ply + 1, -alpha - 1, -alpha);
+                if (r > 0 && val > alpha && !aborted) {
+                    val = -pvs(board, depth - 1, ply + 1, -alpha - 1, -alpha);
+                }
+                if (val > alpha && val < beta && !aborted) {
+                    val = -pvs(board, depth - 1, ply + 1, -beta, -alpha);
                 }
             }
-            return best;
-        } else {
-            int best = Integer.MAX_VALUE;
 
-            for (int i = 0; i < moveCount; i++) {
-                int m = moves[i];
+            board.unmakeMoveInternal(m);
+            board.evaluate.updateUnmakeMove();
 
-                Evaluate.EvalUndo undo = board.evaluate.updateMakeMove(m);
-                board.makeMoveInternal(m);
+            searched++;
+            onPv = false;
+            followPv = false;
 
-                int val = alphaBeta(board, depth - 1, ply + 1, alpha, beta);
+            // the child's score is garbage after an abort; leave tables untouched
+            if (aborted) return 0;
 
-                board.unmakeMoveInternal(m);
-                board.evaluate.updateUnmakeMove(undo);
+            if (val > best) {
+                best = val;
+                bestMove = m;
+                if (val > alpha) {
+                    alpha = val;
+                    updatePv(ply, m);
+                }
+            }
+
+            if (alpha >= beta) {
+                cutoffs++;
+                if (searched == 1) firstMoveCutoffs++;
 
-                if (val < best) best = val;
-                if (best < beta) beta = best;
+                if (quiet) {
+                    storeKiller(ply, m);
+                    if (prev != 0) counterMoves[counterIndex(prev)] = m;
 
-                if (alpha >= beta) {
-                    return best;
+                    int bonus = Math.min(depth * depth, 400);
+                    updateHistory(m, bonus);
+                    for (int i = 0; i < quietCount; i++) updateHistory(quietsTried[ply][i], -bonus);
                 }
+                break;
             }
-            return best;
+
+            if (quiet && quietCount < Board.MAX_MOVES) quietsTried[ply][quietCount++] = m;
         }
+
+        if (searched == 0) return terminalScore(board, ply);
+
+        int bound = best <= alphaOrig ? TranspositionTable.BOUND_UPPER
+                : best >= beta ? TranspositionTable.BOUND_LOWER
+                : TranspositionTable.BOUND_EXACT;
+        tt.store(key, bound == TranspositionTable.BOUND_UPPER ? 0 : bestMove, best, depth, bound, ply);
+
+        return best;
     }
 
-    public int search(Board board, int depth) {
-        resetStats();
+    /**
+     * Quiescence search: only captures and promotions, so the static eval is
+     * never taken in the middle of an exchange. The side to move may stand
+     * pat on the eval; in check every evasion is searched instead.
+     */
+    private int quiescence(Board board, int ply, int alpha, int beta) {
+        nodes++;
+        qnodes++;
 
-        int score = alphaBeta(
-                board,
-                depth,
-                0,
-                Integer.MIN_VALUE + 1,
-                Integer.MAX_VALUE
-        );
+        if ((nodes & (CHECK_EVERY - 1)) == 0 && shouldStop()) aborted = true;
+        if (aborted) return 0;
 
-        long ms = elapsedMillis();
-        double nps = ms > 0 ? (nodes * 1000.0) / ms : nodes;
+        boolean whiteToMove = board.getTurnCounter();
+        boolean inCheck = whiteToMove ? board.whiteInCheck : board.blackInCheck;
 
-        System.out.printf(
-                "Bot search depth=%d time=%dms nodes=%d nps=%.0f score=%d%n",
-                depth, ms, nodes, nps, score
-        );
+        if (ply >= MAX_PLY) return evaluate(board);
 
-        return score;
-    }
+        int[] moves = moveList.moves(ply);
+        int[] scores = moveList.scores(ply);
+        int count;
+        int best;
+        int standPat = 0;
 
-    public int findBestMove(Board board, int depth) {
-        resetStats();
+        if (inCheck) {
+            // in check the legal generator only emits evasions (check mask)
+            count = MoveGen.generateLegalMovesFlat(board, board.masks, moves);
+            if (count == 0) return terminalScore(board, ply);
+            best = -INF;
+        } else {
+            standPat = evaluate(board);
+            if (standPat >= beta) return standPat;
+            if (standPat > alpha) alpha = standPat;
+            best = standPat;
+            count = MoveGen.generateCaptures(board, moves);
+        }
 
-        int[] moves = new int[MAX_MOVES];
-        int moveCount = MoveGen.generateLegalMovesFlat(board, board.masks, moves);
+        for (int i = 0; i < count; i++) scores[i] = MovePicker.mvvLva(moves[i]);
+        moveList.setSize(ply, count);
 
-        boolean maximizing = board.getTurnCounter();
-        int bestMove = 0; // 0 = none
-        int bestScore = maximizing ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            int m = moveList.pickBest(ply, i);
 
-        int alpha = Integer.MIN_VALUE + 1;
-        int beta  = Integer.MAX_VALUE;
+            if (!inCheck) {
+                int gain = Move.isEnPassant(m) ? Evaluate.pieceValue(1) : Evaluate.pieceValue(Move.capId(m));
+                if (Move.isPromotion(m)) gain += Evaluate.pieceValue(Move.promoId(m)) - Evaluate.pieceValue(1);
 
-        for (int i = 0; i < moveCount; i++) {
-            int m = moves[i];
+                // delta pruning: even winning this piece for free cannot reach alpha
+                if (standPat + gain + DELTA_MARGIN <= alpha) continue;
+
+                // losing capture: the exchange on the square does not pay off
+                if (!See.seeGe(board, m, 0)) continue;
+            }
 
-            Evaluate.EvalUndo undo = board.evaluate.updateMakeMove(m);
+            board.evaluate.updateMakeMove(m);
             board.makeMoveInternal(m);
 
-            int score = alphaBeta(board, depth - 1, 1, alpha, beta);
+            int val = -quiescence(board, ply + 1, -beta, -alpha);
 
             board.unmakeMoveInternal(m);
-            board.evaluate.updateUnmakeMove(undo);
+            board.evaluate.updateUnmakeMove();
 
-            if (maximizing) {
-                if (score > bestScore) {
-                    bestScore = score;
-                    bestMove = m;
-                }
-                alpha = Math.max(alpha, bestScore);
+            if (aborted) return 0;
+
+            if (val > best) {
+                best = val;
+                if (val > alpha) alpha = val;
+            }
+            if (alpha >= beta) break;
+        }
+
+        return best;
+    }
+
+    /**
+     * Root search for one iteration. From depth ASPIRATION_MIN_DEPTH on, the
+     * window starts ASPIRATION_DELTA around the previous score and widens on
+     * a fail low/high until the score lands inside it.
+     */
+    private int aspirationSearch(Board board, int depth, int prevScore) {
+        if (depth < ASPIRATION_MIN_DEPTH || Math.abs(prevScore) > MATE_BOUND) {
+            followPv = true;
+            return pvs(board, depth, 0, -INF, INF);
+        }
+
+        int delta = ASPIRATION_DELTA;
+        int alpha = prevScore - delta;
+        int beta = prevScore + delta;
+
+        while (true) {
+            followPv = true;
+            int score = pvs(board, depth, 0, alpha, beta);
+            if (aborted) return score;
+
+            if (score <= alpha) {
+                aspirationFails++;
+                alpha = Math.max(score - delta, -INF);
+            } else if (score >= beta) {
+                aspirationFails++;
+                beta = Math.min(score + delta, INF);
             } else {
-                if (score < bestScore) {
-                    bestScore = score;
-                    bestMove = m;
-                }
-                beta = Math.min(beta, bestScore);
+                return score;
             }
+            delta = Math.min(delta * 4, INF);
+        }
+    }
+
+    /**
+     * Searches one root move with the window (alpha, beta) from the root
+     * side's POV, unlimited and without a PV to follow. Root-split tasks call
+     * this on their own board copy.
+     */
+    int searchRootMove(Board board, int m, int depth, int alpha, int beta) {
+        maxMillis = 0;
+        maxNodes = 0;
+        aborted = false;
+        followPv = false;
+
+        playedMove[0] = m;
+        board.evaluate.updateMakeMove(m);
+        board.makeMoveInternal(m);
+
+        int val = -pvs(board, depth - 1, 1, -beta, -alpha);
+
+        board.unmakeMoveInternal(m);
+        board.evaluate.updateUnmakeMove();
+        return val;
+    }
+
+    public int search(Board board, int depth) {
+        findBestMove(board, depth);
+        return completedScore;
+    }
+
+    /** Fixed-depth search (iterative deepening up to depth, no time limit). */
+    public int findBestMove(Board board, int depth) {
+        if (rootSplit != null && rootSplit.getThreads() > 1) return rootSplit.findBestMove(board, this, depth);
+        return iterativeDeepening(board, depth, 0, 0);
+    }
+
+    /** Searches until the time budget runs out; returns the last completed iteration's move. */
+    public int findBestMoveTimed(Board board, long maxMillis) {
+        return iterativeDeepening(board, MAX_PLY - 1, maxMillis, 0);
+    }
+
+    /**
+     * Iterative deepening: searches depth 1, 2, ... until maxDepth, the time
+     * budget or the node budget is reached (<= 0 disables a limit), or stop()
+     * is called. Each iteration searches the previous PV first. An aborted
+     * iteration is thrown away and the last completed result is returned.
+     */
+    public int iterativeDeepening(Board board, int maxDepth, long maxMillis, long maxNodes) {
+        AtomicBoolean stop = newStopFlag();
+
+        // one generation per search, started before any helper runs so every
+        // thread stores with it (Thread.start publishes the new age)
+        tt.newSearch();
+
+        // helpers get their board copies before the main search starts moving pieces
+        Thread[] running = new Thread[helpers.length];
+        for (int i = 0; i < helpers.length; i++) {
+            Bot helper = helpers[i];
+            Board copy = board.copy();
+            helper.copySettings(this);
+            running[i] = new Thread(() -> helper.deepen(copy, MAX_PLY - 1, 0, 0), "Bot-Helper-" + helper.helperId);
+            running[i].start();
+        }
+
+        int bestMove = deepen(board, maxDepth, maxMillis, maxNodes);
+        stop.set(true); // ends the helpers; this search's token is not reused
+
+        long helperNodes = 0;
+        long probes = ttProbes;
+        long hits = ttHits;
+        for (int i = 0; i < helpers.length; i++) {
+            try {
+                running[i].join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            helperNodes += helpers[i].nodes;
+            probes += helpers[i].ttProbes;
+            hits += helpers[i].ttHits;
         }
 
         long ms = elapsedMillis();
-        double nps = ms > 0 ? (nodes * 1000.0) / ms : nodes;
+        long totalNodes = nodes + helperNodes;
+        double nps = ms > 0 ? (totalNodes * 1000.0) / ms : totalNodes;
 
         System.out.printf(
-                "Bot findBestMove depth=%d time=%dms nodes=%d nps=%.0f best=%s score=%d%n",
-                depth,
+                "Bot findBestMove depth=%d time=%dms nodes=%d qnodes=%d nps=%.0f threads=%d best=%s score=%d aspFails=%d%s%n",
+                completedDepth,
                 ms,
-                nodes,
+                totalNodes,
+                qnodes,
                 nps,
+                getThreads(),
                 bestMove == 0 ? "null" : Move.toUci(bestMove),
-                bestScore
+                completedScore,
+                aspirationFails,
+                aborted ? " (stopped)" : ""
         );
+        printHashStats(tt, probes, hits);
+        System.out.printf("Ordering cutoffs=%d first-move=%.1f%%%n", cutoffs, firstMoveCutoffRate());
+        System.out.printf("Selectivity null=%d rfp=%d futility=%d lmr=%d%n",
+                nullMoveCutoffs, reverseFutilityCutoffs, futilityPrunes, lateMoveReductions);
+
+        return bestMove;
+    }
+
+    /**
+     * The iterative deepening loop of one thread. Helpers start at a
+     * different depth so the threads spread over depths and fill the shared
+     * table with entries the others can use, and they print nothing.
+     */
+    private int deepen(Board board, int maxDepth, long maxMillis, long maxNodes) {
+        resetStats();
+        this.maxMillis = maxMillis;
+        this.maxNodes = maxNodes;
+        this.aborted = false;
+
+        prevPvLength = 0;
+        completedDepth = 0;
+        completedScore = 0;
+
+        // reported scores are White POV like Evaluate; the search itself is side-to-move POV
+        int sign = board.getTurnCounter() ? 1 : -1;
+
+        // fallback so a search stopped inside depth 1 still returns a legal move
+        int moveCount = moveList.generateLegal(board, 0);
+        if (moveCount == 0) {
+            completedScore = sign * terminalScore(board, 0);
+            return 0;
+        }
+        int bestMove = moveList.get(0, 0);
+        int score = 0;
+
+        // stopped while the search was being set up: answer with the fallback
+        if (stopFlag.get()) {
+            aborted = true;
+            return bestMove;
+        }
+
+        for (int depth = 1 + helperId % 2; depth <= maxDepth; depth++) {
+            score = aspirationSearch(board, depth, score);
+            if (aborted) break;
+
+            bestMove = pv[0][0];
+            completedDepth = depth;
+            completedScore = sign * score;
+            prevPvLength = pvLength[0];
+            System.arraycopy(pv[0], 0, prevPv, 0, prevPvLength);
+
+            if (helperId == 0) printIteration(depth, completedScore);
+
+            // a found mate will not get better; and a new iteration started
+            // past half the budget would almost certainly be thrown away
+            if (Math.abs(score) > MATE_BOUND) break;
+            if (maxMillis > 0 && elapsedMillis() * 2 >= maxMillis) break;
+        }
 
         return bestMove;
     }
+
+    private void printIteration(int depth, int score) {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < prevPvLength; i++) {
+            if (i > 0) line.append(' ');
+            line.append(Move.toUci(prevPv[i]));
+        }
+        System.out.printf("info depth=%d score=%d nodes=%d time=%dms pv=%s%n",
+                depth, score, nodes, elapsedMillis(), line);
+    }
 }
@@ -14,6 +14,12 @@ public class Evaluate {
     private int materialScore;
     private int pstScore;
 
+    // per-move deltas, pushed by updateMakeMove and popped by updateUnmakeMove
+    private static final int MAX_PLY = 2048;
+    private final int[] undoMat = new int[MAX_PLY];
+    private final int[] undoPst = new int[MAX_PLY];
+    private int undoTop = 0;
+
     public Evaluate(Board board) {
         this.board = board;
         rebuildEvalFromScratch();
@@ -27,13 +33,14 @@ public class Evaluate {
     public void rebuildEvalFromScratch() {
         materialScore = computeMaterial();
         pstScore = computePST();
+        undoTop = 0;
     }
 
     /**
-     * Apply eval deltas for a move. Call this exactly once per makeMoveInternal(m),
-     * and store the returned EvalUndo so unmake can reverse it.
+     * Apply eval deltas for a move. Call this exactly once per makeMoveInternal(m);
+     * the deltas are kept on an internal stack so unmake can reverse them.
      */
-    public EvalUndo updateMakeMove(int m) {
+    public void updateMakeMove(int m) {
         int matDelta = 0;
         int pstDelta = 0;
 
@@ -100,42 +107,35 @@ public class Evaluate {
         materialScore += matDelta;
         pstScore += pstDelta;
 
-        return new EvalUndo(matDelta, pstDelta);
-    }
-
-    /**
-     * Reverse eval deltas for unmakeMoveInternal(m).
-     * Pass the EvalUndo you got from updateMakeMove(m).
-     */
-    public void updateUnmakeMove(EvalUndo u) {
-        materialScore -= u.matDelta;
-        pstScore -= u.pstDelta;
+        if (undoTop >= MAX_PLY) throw new IllegalStateException("Eval undo stack overflow");
+        undoMat[undoTop] = matDelta;
+        undoPst[undoTop] = pstDelta;
+        undoTop++;
     }
 
-    /** Stores the deltas applied for a move so unmake can reverse them safely. */
-    public static final class EvalUndo {
-        public final int matDelta;
-        public final int pstDelta;
-
-        public EvalUndo(int matDelta, int pstDelta) {
-            this.matDelta = matDelta;
-            this.pstDelta = pstDelta;
-        }
+    /** Reverse the eval deltas of the last updateMakeMove, for unmakeMoveInternal(m). */
+    public void updateUnmakeMove() {
+        if (undoTop == 0) throw new IllegalStateException("Eval undo stack underflow");
+        undoTop--;
+        materialScore -= undoMat[undoTop];
+        pstScore -= undoPst[undoTop];
     }
 
     // -------------------------
     // Material + PST helpers
     // -------------------------
 
+    // the one piece value table: indexed by Piece.id() (0 = none), unsigned centipawns; kings count 0
+    static final int[] VALUE_BY_ID = {0, 100, 300, 300, 500, 900, 0, 100, 300, 300, 500, 900, 0};
+
+    /** Unsigned material value of a piece id, as used by the search for pruning margins. */
+    static int pieceValue(int pieceId) {
+        return VALUE_BY_ID[pieceId];
+    }
+
+    /** Signed (White POV) material value, from the same table. */
     private static int value(Piece p) {
-        int v = switch (p) {
-            case WP, BP -> 100;
-            case WN, BN -> 300;
-            case WB, BB -> 300;
-            case WR, BR -> 500;
-            case WQ, BQ -> 900;
-            case WK, BK -> 0;
-        };
+        int v = VALUE_BY_ID[p.id()];
         return p.white ? v : -v;
     }
 
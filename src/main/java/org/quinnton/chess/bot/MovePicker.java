@@ -0,0 +1,177 @@
+package org.quinnton.chess.bot;
+
+import org.quinnton.chess.core.Board;
+import org.quinnton.chess.core.Move;
+import org.quinnton.chess.core.MoveGen;
+import org.quinnton.chess.core.MoveList;
+import org.quinnton.chess.core.Piece;
+
+/**
+ * Staged move generation for the search. Moves come out in this order:
+ *   1. hash move (validated, no generation needed)
+ *   2. captures and promotions that do not lose material (SEE), best MVV-LVA first
+ *   3. the two killer moves for this ply (validated)
+ *   4. the counter move to the opponent's last move (validated)
+ *   5. remaining quiet moves, best history score first
+ *   6. losing captures, in the order they were deferred
+ * Each stage is only prepared when the previous one runs dry, so a node
+ * that cuts off on the hash move never generates anything.
+ *
+ * Captures and then quiets are generated into the ply's MoveList slot (the
+ * captures are used up before the quiets overwrite them).
+ * One picker per ply; reuse it with init() instead of allocating.
+ */
+public final class MovePicker {
+
+    private static final int STAGE_HASH          = 0;
+    private static final int STAGE_CAPTURES_INIT = 1;
+    private static final int STAGE_CAPTURES      = 2;
+    private static final int STAGE_KILLER_1      = 3;
+    private static final int STAGE_KILLER_2      = 4;
+    private static final int STAGE_COUNTER       = 5;
+    private static final int STAGE_QUIETS_INIT   = 6;
+    private static final int STAGE_QUIETS        = 7;
+    private static final int STAGE_BAD_CAPTURES  = 8;
+    private static final int STAGE_DONE          = 9;
+
+    private final int[] scratch = new int[Board.MAX_MOVES];
+
+    // captures that fail SEE, held back until after the quiets
+    private final int[] badCaptures = new int[Board.MAX_MOVES];
+
+    // butterfly history owned by the search, see historyIndex
+    private final int[] history;
+
+    private Board board;
+    private MoveList list;
+    private int ply;
+    private int hashMove;
+    private int killer1;
+    private int killer2;
+    private int counter;
+
+    private int stage;
+    private int captureCount;
+    private int captureIndex;
+    private int quietCount;
+    private int quietIndex;
+    private int badCount;
+    private int badIndex;
+
+    public MovePicker(int[] history) {
+        this.history = history;
+    }
+
+    public void init(Board board, MoveList list, int ply, int hashMove, int killer1, int killer2, int counter) {
+        this.board = board;
+        this.list = list;
+        this.ply = ply;
+        this.hashMove = hashMove;
+        this.killer1 = killer1;
+        this.killer2 = killer2;
+        this.counter = counter;
+        this.stage = STAGE_HASH;
+        this.captureCount = 0;
+        this.captureIndex = 0;
+        this.quietCount = 0;
+        this.quietIndex = 0;
+        this.badCount = 0;
+        this.badIndex = 0;
+    }
+
+    /** @return the next move to search, or 0 when the node is exhausted */
+    public int next() {
+        while (true) {
+            switch (stage) {
+                case STAGE_HASH -> {
+                    stage = STAGE_CAPTURES_INIT;
+                    if (MoveGen.isLegal(board, hashMove, scratch)) return hashMove;
+                }
+                case STAGE_CAPTURES_INIT -> {
+                    int[] moves = list.moves(ply);
+                    int[] scores = list.scores(ply);
+                    captureCount = MoveGen.generateCaptures(board, moves);
+                    for (int i = 0; i < captureCount; i++) scores[i] = mvvLva(moves[i]);
+                    list.setSize(ply, captureCount);
+                    stage = STAGE_CAPTURES;
+                }
+                case STAGE_CAPTURES -> {
+                    if (captureIndex >= captureCount) {
+                        stage = STAGE_KILLER_1;
+                        continue;
+                    }
+                    int m = list.pickBest(ply, captureIndex++);
+                    if (m == hashMove) continue;
+                    if (!See.seeGe(board, m, 0)) {
+                        badCaptures[badCount++] = m;
+                        continue;
+                    }
+                    return m;
+                }
+                case STAGE_KILLER_1 -> {
+                    stage = STAGE_KILLER_2;
+                    if (isUsableKiller(killer1)) return killer1;
+                }
+                case STAGE_KILLER_2 -> {
+                    stage = STAGE_COUNTER;
+                    if (killer2 != killer1 && isUsableKiller(killer2)) return killer2;
+                }
+                case STAGE_COUNTER -> {
+                    stage = STAGE_QUIETS_INIT;
+                    if (counter != killer1 && counter != killer2 && isUsableKiller(counter)) return counter;
+                }
+                case STAGE_QUIETS_INIT -> {
+                    int[] moves = list.moves(ply);
+                    int[] scores = list.scores(ply);
+                    quietCount = MoveGen.generateQuiets(board, moves);
+                    for (int i = 0; i < quietCount; i++) scores[i] = history[historyIndex(moves[i])];
+                    list.setSize(ply, quietCount);
+                    stage = STAGE_QUIETS;
+                }
+                case STAGE_QUIETS -> {
+                    if (quietIndex >= quietCount) {
+                        stage = STAGE_BAD_CAPTURES;
+                        continue;
+                    }
+                    int m = list.pickBest(ply, quietIndex++);
+                    if (m != hashMove && m != killer1 && m != killer2 && m != counter) return m;
+                }
+                case STAGE_BAD_CAPTURES -> {
+                    if (badIndex >= badCount) {
+                        stage = STAGE_DONE;
+                        continue;
+                    }
+                    return badCaptures[badIndex++];
+                }
+                default -> {
+                    return 0;
+                }
+            }
+        }
+    }
+
+    private boolean isUsableKiller(int killer) {
+        return killer != 0
+                && killer != hashMove
+                && !Move.isCapture(killer)
+                && !Move.isPromotion(killer)
+                && MoveGen.isLegal(board, killer, scratch);
+    }
+
+    /** Butterfly index: side to move (from the mover's color), from, to. */
+    static int historyIndex(int m) {
+        int side = Move.pieceId(m) <= 6 ? 0 : 1;
+        return (side << 12) | (Move.from(m) << 6) | Move.to(m);
+    }
+
+    /**
+     * Most valuable victim, least valuable attacker, on Evaluate's piece
+     * values. EP captures a pawn. Different victims are at least a pawn
+     * apart, so the attacker term (at most 9) only orders equal victims.
+     */
+    static int mvvLva(int m) {
+        int victim = Evaluate.pieceValue(Move.isEnPassant(m) ? Piece.WP.id() : Move.capId(m));
+        int promo = Evaluate.pieceValue(Move.promoId(m));
+        return victim + promo - Evaluate.pieceValue(Move.pieceId(m)) / 100;
+    }
+}
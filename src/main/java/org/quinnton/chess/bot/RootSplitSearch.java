@@ -0,0 +1,197 @@
+package org.quinnton.chess.bot;
+
+import org.quinnton.chess.core.Board;
+import org.quinnton.chess.core.Move;
+import org.quinnton.chess.core.MoveGen;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Root-splitting parallel search, the deterministic alternative to Lazy SMP.
+ *
+ * Every iteration searches the first root move serially for a bound, then
+ * hands the remaining root moves to a ForkJoinPool. Each task scouts its
+ * move with a null window at the shared alpha (an AtomicInteger) on its own
+ * Board.copy(), and re-searches with an open window only if it reaches it.
+ * The best move is the earliest root move with the highest exact score,
+ * which is the move a serial search over the same order would keep.
+ *
+ * Like the serial search, it ends early on the owner's stop(): every worker
+ * shares the owner's stop token, the interrupted iteration is thrown away
+ * and the last completed one is returned.
+ */
+final class RootSplitSearch {
+
+    private static final int MAX_MOVES = Board.MAX_MOVES;
+
+    private final TranspositionTable tt;
+    private final ForkJoinPool pool;
+
+    // one worker Bot per pool worker, by pool index (so at most one per pool slot),
+    // kept between searches for their history tables and for node reporting
+    private final Map<Integer, Bot> workers = new LinkedHashMap<>();
+
+    RootSplitSearch(TranspositionTable tt, int threads) {
+        this.tt = tt;
+        this.pool = new ForkJoinPool(Math.max(1, threads));
+    }
+
+    int getThreads() {
+        return pool.getParallelism();
+    }
+
+    /** Stops the pool's threads; called when the owner replaces this search. */
+    void shutdown() {
+        pool.shutdown();
+    }
+
+    private Bot newWorker() {
+        return new Bot(tt);
+    }
+
+    /**
+     * The Bot for the current thread: the pool worker's own, or the
+     * caller's for this search when the caller runs a task while joining.
+     */
+    private Bot workerBot(Bot caller) {
+        if (Thread.currentThread() instanceof ForkJoinWorkerThread t && t.getPool() == pool) {
+            synchronized (workers) {
+                return workers.computeIfAbsent(t.getPoolIndex(), i -> newWorker());
+            }
+        }
+        return caller;
+    }
+
+    /**
+     * Iterative deepening to depth, root-split at every iteration. The owner
+     * supplies the selectivity toggles and stop token, and receives the
+     * completed depth and score.
+     */
+    int findBestMove(Board board, Bot owner, int depth) {
+        long start = System.nanoTime();
+        AtomicBoolean stop = owner.newStopFlag();
+        tt.newSearch(); // before any task is submitted, so every worker stores with it
+        synchronized (workers) {
+            for (Bot w : workers.values()) w.resetStats();
+        }
+
+        int[] moves = new int[MAX_MOVES];
+        int count = MoveGen.generateLegalMovesFlat(board, board.masks, moves);
+        if (count == 0) {
+            owner.setCompleted(0, 0);
+            return 0;
+        }
+
+        // the calling thread's Bot lives for this search only
+        Bot caller = newWorker();
+        caller.resetStats();
+
+        int bestMove = moves[0];
+        int bestScore = 0;
+        int completed = 0;
+        boolean stopped = false;
+
+        for (int d = 1; d <= depth; d++) {
+            int[] scores = new int[count];
+            boolean[] exact = new boolean[count];
+
+            // first move serially: its exact score is the bound the others must beat
+            caller.copySettings(owner);
+            scores[0] = caller.searchRootMove(board, moves[0], d, -Bot.INF, Bot.INF);
+            exact[0] = true;
+            if (stop.get()) {
+                stopped = true;
+                break;
+            }
+
+            AtomicInteger alpha = new AtomicInteger(scores[0]);
+            List<ForkJoinTask<?>> tasks = new ArrayList<>(count);
+
+            for (int i = 1; i < count; i++) {
+                final int index = i;
+                final Board copy = board.copy();
+                final int depthNow = d;
+
+                tasks.add(pool.submit(() -> {
+                    if (stop.get()) return;
+                    Bot w = workerBot(caller);
+                    w.copySettings(owner);
+                    int m = moves[index];
+
+                    // scout at alpha - 1 so a move tying the bound still gets an exact
+                    // score: an earlier move must win a tie whatever order tasks finish in
+                    int a = alpha.get() - 1;
+                    int val = w.searchRootMove(copy, m, depthNow, a, a + 1);
+                    if (val > a) {
+                        val = w.searchRootMove(copy, m, depthNow, a, Bot.INF);
+                        exact[index] = val > a;
+                        if (exact[index]) alpha.accumulateAndGet(val, Math::max);
+                    }
+                    scores[index] = val;
+                }));
+            }
+            for (ForkJoinTask<?> t : tasks) t.join();
+
+            // some move was cut short: the iteration is incomplete
+            if (stop.get()) {
+                stopped = true;
+                break;
+            }
+
+            // earliest root move with the highest exact score, like a serial search
+            int best = 0;
+            for (int i = 1; i < count; i++) {
+                if (exact[i] && scores[i] > scores[best]) best = i;
+            }
+
+            bestMove = moves[best];
+            bestScore = scores[best];
+            completed = d;
+
+            // best move first for the next iteration, the rest keep their order
+            System.arraycopy(moves, 0, moves, 1, best);
+            moves[0] = bestMove;
+
+            // a found mate will not get better
+            if (Math.abs(bestScore) > Bot.MATE_BOUND) break;
+        }
+
+        int whiteScore = board.getTurnCounter() ? bestScore : -bestScore;
+        owner.setCompleted(completed, whiteScore);
+        report(start, completed, bestMove, whiteScore, caller, stopped);
+        return bestMove;
+    }
+
+    private void report(long start, int depth, int bestMove, int whiteScore, Bot caller, boolean stopped) {
+        long ms = (System.nanoTime() - start) / 1_000_000L;
+        long total = caller.getNodes();
+        long probes = caller.getTtProbes();
+        long hits = caller.getTtHits();
+        StringBuilder perThread = new StringBuilder(String.format("  caller nodes=%d%n", total));
+        synchronized (workers) {
+            for (Map.Entry<Integer, Bot> e : workers.entrySet()) {
+                long n = e.getValue().getNodes();
+                total += n;
+                probes += e.getValue().getTtProbes();
+                hits += e.getValue().getTtHits();
+                perThread.append(String.format("  worker-%d nodes=%d%n", e.getKey(), n));
+            }
+        }
+        double nps = ms > 0 ? (total * 1000.0) / ms : total;
+
+        System.out.printf(
+                "Bot rootSplit depth=%d time=%dms nodes=%d nps=%.0f threads=%d best=%s score=%d%s%n%s",
+                depth, ms, total, nps, pool.getParallelism(), Move.toUci(bestMove), whiteScore,
+                stopped ? " (stopped)" : "", perThread
+        );
+        Bot.printHashStats(tt, probes, hits);
+    }
+}
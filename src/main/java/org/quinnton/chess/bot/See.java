@@ -0,0 +1,97 @@
+package org.quinnton.chess.bot;
+
+import org.quinnton.chess.core.Attacks;
+import org.quinnton.chess.core.Board;
+import org.quinnton.chess.core.Move;
+import org.quinnton.chess.core.Piece;
+
+/**
+ * Static exchange evaluation: plays out the capture sequence on the target
+ * square with the least valuable attacker each time, without making moves.
+ * Sliders hidden behind a piece that just captured are found by re-reading
+ * the slider lookups with that piece removed from the occupancy (x-rays).
+ *
+ * Everything works on longs and ints, so it never allocates.
+ */
+public final class See {
+
+    private See() {}
+
+    /**
+     * True if the exchange started by m wins at least threshold centipawns
+     * for the side making it (both sides may stop capturing at any point).
+     * Pins are ignored, as usual for SEE.
+     */
+    public static boolean seeGe(Board board, int m, int threshold) {
+        if (Move.isCastle(m)) return 0 >= threshold;
+
+        int from = Move.from(m);
+        int to = Move.to(m);
+        boolean white = Move.piece(m).isWhite();
+
+        int victim = Move.isEnPassant(m) ? Evaluate.pieceValue(Piece.WP.id()) : Evaluate.pieceValue(Move.capId(m));
+        int mover = Move.isPromotion(m) ? Evaluate.pieceValue(Move.promoId(m)) : Evaluate.pieceValue(Move.pieceId(m));
+        if (Move.isPromotion(m)) victim += mover - Evaluate.pieceValue(Piece.WP.id());
+
+        // balance after our capture, from our side's view
+        int swap = victim - threshold;
+        if (swap < 0) return false;
+
+        // even losing the capturing piece for nothing keeps us above the threshold
+        swap = mover - swap;
+        if (swap <= 0) return true;
+
+        long occ = board.getAllPieces() ^ (1L << from) ^ (1L << to);
+        if (Move.isEnPassant(m)) occ ^= 1L << (white ? to - 8 : to + 8);
+
+        long bishops = board.getBitboard(Piece.WB) | board.getBitboard(Piece.BB);
+        long rooks = board.getBitboard(Piece.WR) | board.getBitboard(Piece.BR);
+        long queens = board.getBitboard(Piece.WQ) | board.getBitboard(Piece.BQ);
+        long diagonal = bishops | queens;
+        long straight = rooks | queens;
+
+        long whitePieces = board.getAllWhitePieces();
+        long attackers = Attacks.attackersTo(board, to, occ);
+
+        boolean stmWhite = white;
+        int res = 1;
+
+        while (true) {
+            stmWhite = !stmWhite;
+            attackers &= occ;
+
+            long stmAttackers = attackers & (stmWhite ? whitePieces : ~whitePieces);
+            if (stmAttackers == 0) break;
+
+            res ^= 1;
+
+            long bb;
+            if ((bb = stmAttackers & board.getBitboard(stmWhite ? Piece.WP : Piece.BP)) != 0) {
+                if ((swap = Evaluate.pieceValue(Piece.WP.id()) - swap) < res) break;
+                occ ^= bb & -bb;
+                attackers |= Attacks.bishop(to, occ) & diagonal;
+            } else if ((bb = stmAttackers & board.getBitboard(stmWhite ? Piece.WN : Piece.BN)) != 0) {
+                if ((swap = Evaluate.pieceValue(Piece.WN.id()) - swap) < res) break;
+                occ ^= bb & -bb;
+            } else if ((bb = stmAttackers & board.getBitboard(stmWhite ? Piece.WB : Piece.BB)) != 0) {
+                if ((swap = Evaluate.pieceValue(Piece.WB.id()) - swap) < res) break;
+                occ ^= bb & -bb;
+                attackers |= Attacks.bishop(to, occ) & diagonal;
+            } else if ((bb = stmAttackers & board.getBitboard(stmWhite ? Piece.WR : Piece.BR)) != 0) {
+                if ((swap = Evaluate.pieceValue(Piece.WR.id()) - swap) < res) break;
+                occ ^= bb & -bb;
+                attackers |= Attacks.rook(to, occ) & straight;
+            } else if ((bb = stmAttackers & board.getBitboard(stmWhite ? Piece.WQ : Piece.BQ)) != 0) {
+                if ((swap = Evaluate.pieceValue(Piece.WQ.id()) - swap) < res) break;
+                occ ^= bb & -bb;
+                attackers |= (Attacks.bishop(to, occ) & diagonal) | (Attacks.rook(to, occ) & straight);
+            } else {
+                // king: it may only take if the other side has nothing left to recapture
+                long theirs = attackers & (stmWhite ? ~whitePieces : whitePieces);
+                return (theirs != 0 ? res ^ 1 : res) != 0;
+            }
+        }
+
+        return res != 0;
+    }
+}
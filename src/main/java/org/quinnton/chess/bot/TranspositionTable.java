@@ -0,0 +1,150 @@
+package org.quinnton.chess.bot;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-size transposition table in one flat long[], two longs per entry:
+ *   [i]     key ^ data
+ *   [i + 1] data
+ * A probe only accepts an entry if both halves agree with the key, so threads
+ * can share the table without locks: a torn write just reads as a miss.
+ * Probe and hit counts are kept by each searching Bot, not here, so threads
+ * never write shared counters.
+ *
+ * data layout (64 bits):
+ *   bits  0-27  best move (packed int move, 0 = none)
+ *   bits 28-48  score (21-bit signed, mate scores stored relative to the node)
+ *   bits 49-55  depth
+ *   bits 56-57  bound (EXACT / LOWER / UPPER)
+ *   bits 58-63  age (search generation)
+ */
+public final class TranspositionTable {
+
+    public static final String PROPERTY = "chess.hashMb";
+    public static final int DEFAULT_MB = 16;
+
+    public static final int BOUND_NONE  = 0;
+    public static final int BOUND_EXACT = 1;
+    public static final int BOUND_LOWER = 2; // score >= stored (fail high)
+    public static final int BOUND_UPPER = 3; // score <= stored (fail low)
+
+    private static final int ENTRY_BYTES = 16;
+    private static final int SAMPLE = 1000;
+
+    private final long[] table;
+    private final int indexMask; // over entries, not longs
+
+    private int age;
+
+    public TranspositionTable(int sizeMb) {
+        long entries = Long.highestOneBit(Math.max(1L, (long) sizeMb * 1024 * 1024 / ENTRY_BYTES));
+        if (entries > (1 << 29)) entries = 1 << 29; // keep 2 * entries within an int array index
+        this.table = new long[(int) entries * 2];
+        this.indexMask = (int) entries - 1;
+    }
+
+    /** Size from -Dchess.hashMb, default 16 MB. */
+    public static int sizeMbFromProperty() {
+        return Integer.getInteger(PROPERTY, DEFAULT_MB);
+    }
+
+    public int sizeMb() {
+        return (int) ((long) table.length * 8 / (1024 * 1024));
+    }
+
+    /** Starts a new search generation; older entries become preferred victims. */
+    public void newSearch() {
+        age = (age + 1) & 63;
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0L);
+        age = 0;
+    }
+
+    // ------------------------------------------------------------
+    // Probe / store
+    // ------------------------------------------------------------
+
+    /** @return the entry's data word, or 0 on a miss */
+    public long probe(long key) {
+        int i = index(key);
+        long data = table[i + 1];
+        if ((table[i] ^ data) != key || data == 0) return 0L;
+        return data;
+    }
+
+    public void store(long key, int move, int score, int depth, int bound, int ply) {
+        int i = index(key);
+        long oldData = table[i + 1];
+        boolean sameKey = (table[i] ^ oldData) == key;
+
+        if (oldData != 0) {
+            // keep a deeper entry from this search unless it is the same position
+            if (!sameKey && ageOf(oldData) == age && depthOf(oldData) > depth) return;
+            // no new best move (fail low): keep the old one for ordering
+            if (sameKey && move == 0) move = moveOf(oldData);
+        }
+
+        long data = (move & 0xFFFFFFFL)
+                | ((long) (scoreToTT(score, ply) & 0x1FFFFF) << 28)
+                | ((long) Math.min(depth, 127) << 49)
+                | ((long) bound << 56)
+                | ((long) age << 58);
+
+        table[i] = key ^ data;
+        table[i + 1] = data;
+    }
+
+    private int index(long key) {
+        return ((int) key & indexMask) << 1;
+    }
+
+    // ------------------------------------------------------------
+    // Data word accessors
+    // ------------------------------------------------------------
+    public static int moveOf(long data) {
+        return (int) (data & 0xFFFFFFFL);
+    }
+
+    /** Score adjusted back to the probing node's ply. */
+    public static int scoreOf(long data, int ply) {
+        int s = (int) ((data << 15) >> 43); // sign-extend bits 28-48
+        if (s > Bot.MATE_BOUND) return s - ply;
+        if (s < -Bot.MATE_BOUND) return s + ply;
+        return s;
+    }
+
+    public static int depthOf(long data) {
+        return (int) ((data >>> 49) & 127);
+    }
+
+    public static int boundOf(long data) {
+        return (int) ((data >>> 56) & 3);
+    }
+
+    private static int ageOf(long data) {
+        return (int) (data >>> 58);
+    }
+
+    /** Mate scores are stored as distance from this node, not from the root. */
+    private static int scoreToTT(int score, int ply) {
+        if (score > Bot.MATE_BOUND) return score + ply;
+        if (score < -Bot.MATE_BOUND) return score - ply;
+        return score;
+    }
+
+    // ------------------------------------------------------------
+    // Statistics
+    // ------------------------------------------------------------
+    /** Per mille of sampled entries written during the current search. */
+    public int fillPermille() {
+        int n = Math.min(SAMPLE, indexMask + 1);
+        int used = 0;
+        for (int e = 0; e < n; e++) {
+            long data = table[(e << 1) + 1];
+            if (data != 0 && ageOf(data) == age) used++;
+        }
+        return used * 1000 / n;
+    }
+}
@@ -1,9 +1,146 @@
 package org.quinnton.chess.core;
 
-public class Attacks {
-    public static final long[] KNIGHT = new long[64];
-    public static final long[] KING   = new long[64];
+/**
+ * Central source for attack geometry. Everything here is precomputed or a
+ * single table lookup, so MoveGen, Board and the bot can share it freely.
+ */
+public final class Attacks {
+    public static final long[] KNIGHT = Masks.KNIGHT_MOVES;
+    public static final long[] KING   = Masks.KING_MOVES;
 
-    // just precomputed moves like for Knights, and Kings
+    // squares a pawn of that color standing on sq attacks
+    public static final long[] WHITE_PAWN = Masks.WHITE_PAWN_ATTACKS;
+    public static final long[] BLACK_PAWN = Masks.BLACK_PAWN_ATTACKS;
 
+    // BETWEEN[a][b]: squares strictly between a and b if they share a rank, file or diagonal, else 0
+    public static final long[][] BETWEEN = new long[64][64];
+    // LINE[a][b]: the full edge-to-edge line through a and b (including both), else 0
+    public static final long[][] LINE = new long[64][64];
+
+    static {
+        for (int a = 0; a < 64; a++) {
+            long rookEmpty = RookMoveMasks.getLegalMoves(a, 0L);
+            long bishopEmpty = BishopMoveMasks.getBishopMoves(a, 0L);
+
+            for (int b = 0; b < 64; b++) {
+                if (a == b) continue;
+                long bBit = 1L << b;
+
+                if ((rookEmpty & bBit) != 0) {
+                    LINE[a][b] = (rookEmpty & RookMoveMasks.getLegalMoves(b, 0L)) | (1L << a) | bBit;
+                    BETWEEN[a][b] = RookMoveMasks.getLegalMoves(a, bBit) & RookMoveMasks.getLegalMoves(b, 1L << a);
+                } else if ((bishopEmpty & bBit) != 0) {
+                    LINE[a][b] = (bishopEmpty & BishopMoveMasks.getBishopMoves(b, 0L)) | (1L << a) | bBit;
+                    BETWEEN[a][b] = BishopMoveMasks.getBishopMoves(a, bBit) & BishopMoveMasks.getBishopMoves(b, 1L << a);
+                }
+            }
+        }
+    }
+
+    private Attacks() {}
+
+    // ------------------------------------------------------------
+    // Single-square lookups
+    // ------------------------------------------------------------
+    public static long pawn(int sq, boolean isWhite) {
+        return isWhite ? WHITE_PAWN[sq] : BLACK_PAWN[sq];
+    }
+
+    public static long knight(int sq) {
+        return KNIGHT[sq];
+    }
+
+    public static long king(int sq) {
+        return KING[sq];
+    }
+
+    public static long rook(int sq, long occupied) {
+        return Masks.SLIDERS.rookAttacks(sq, occupied);
+    }
+
+    public static long bishop(int sq, long occupied) {
+        return Masks.SLIDERS.bishopAttacks(sq, occupied);
+    }
+
+    public static long queen(int sq, long occupied) {
+        return Masks.SLIDERS.queenAttacks(sq, occupied);
+    }
+
+    // ------------------------------------------------------------
+    // Set-wise pawn attacks (every pawn in the bitboard at once)
+    // ------------------------------------------------------------
+    public static long whitePawnAttacks(long pawns) {
+        return ((pawns & Masks.NOT_FILE_A) << 7) | ((pawns & Masks.NOT_FILE_H) << 9);
+    }
+
+    public static long blackPawnAttacks(long pawns) {
+        return ((pawns & Masks.NOT_FILE_H) >>> 7) | ((pawns & Masks.NOT_FILE_A) >>> 9);
+    }
+
+    public static long pawnAttacks(long pawns, boolean isWhite) {
+        return isWhite ? whitePawnAttacks(pawns) : blackPawnAttacks(pawns);
+    }
+
+    // ------------------------------------------------------------
+    // Board queries
+    // ------------------------------------------------------------
+
+    /**
+     * Every piece of either color attacking sq for the given occupancy.
+     * Pass a modified occupancy to see x-ray attackers (e.g. for SEE).
+     */
+    public static long attackersTo(Board board, int sq, long occupied) {
+        long queens = board.getBitboard(Piece.WQ) | board.getBitboard(Piece.BQ);
+        long rookLike = board.getBitboard(Piece.WR) | board.getBitboard(Piece.BR) | queens;
+        long bishopLike = board.getBitboard(Piece.WB) | board.getBitboard(Piece.BB) | queens;
+
+        return (BLACK_PAWN[sq] & board.getBitboard(Piece.WP))
+                | (WHITE_PAWN[sq] & board.getBitboard(Piece.BP))
+                | (KNIGHT[sq] & (board.getBitboard(Piece.WN) | board.getBitboard(Piece.BN)))
+                | (KING[sq] & (board.getBitboard(Piece.WK) | board.getBitboard(Piece.BK)))
+                | (rook(sq, occupied) & rookLike)
+                | (bishop(sq, occupied) & bishopLike);
+    }
+
+    /** True if any piece of the given side attacks sq for the given occupancy. */
+    public static boolean isAttackedBy(Board board, int sq, boolean byWhite, long occupied) {
+        // a pawn of the defending color on sq attacks exactly the squares enemy pawns attack sq from
+        if ((pawn(sq, !byWhite) & board.getBitboard(byWhite ? Piece.WP : Piece.BP)) != 0) return true;
+        if ((KNIGHT[sq] & board.getBitboard(byWhite ? Piece.WN : Piece.BN)) != 0) return true;
+        if ((KING[sq] & board.getBitboard(byWhite ? Piece.WK : Piece.BK)) != 0) return true;
+
+        long queens = board.getBitboard(byWhite ? Piece.WQ : Piece.BQ);
+        if ((bishop(sq, occupied) & (board.getBitboard(byWhite ? Piece.WB : Piece.BB) | queens)) != 0) return true;
+        return (rook(sq, occupied) & (board.getBitboard(byWhite ? Piece.WR : Piece.BR) | queens)) != 0;
+    }
+
+    /** Every square attacked by one side (defended own pieces included). */
+    public static long attackedBy(Board board, boolean byWhite, long occupied) {
+        long mask = pawnAttacks(board.getBitboard(byWhite ? Piece.WP : Piece.BP), byWhite);
+
+        long knights = board.getBitboard(byWhite ? Piece.WN : Piece.BN);
+        while (knights != 0) {
+            mask |= KNIGHT[Long.numberOfTrailingZeros(knights)];
+            knights &= knights - 1;
+        }
+
+        long queens = board.getBitboard(byWhite ? Piece.WQ : Piece.BQ);
+
+        long diag = board.getBitboard(byWhite ? Piece.WB : Piece.BB) | queens;
+        while (diag != 0) {
+            mask |= bishop(Long.numberOfTrailingZeros(diag), occupied);
+            diag &= diag - 1;
+        }
+
+        long straight = board.getBitboard(byWhite ? Piece.WR : Piece.BR) | queens;
+        while (straight != 0) {
+            mask |= rook(Long.numberOfTrailingZeros(straight), occupied);
+            straight &= straight - 1;
+        }
+
+        long king = board.getBitboard(byWhite ? Piece.WK : Piece.BK);
+        if (king != 0) mask |= KING[Long.numberOfTrailingZeros(king)];
+
+        return mask;
+    }
 }
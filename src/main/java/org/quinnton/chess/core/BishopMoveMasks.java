@@ -1,34 +1,7 @@
 package org.quinnton.chess.core;
 
-import java.util.HashMap;
-
 public class BishopMoveMasks {
 
-    // Build lookup table
-    public static HashMap<PositionBitboard, Long> generateBishopLookupTable() {
-        HashMap<PositionBitboard, Long> table = new HashMap<>();
-
-        // create indices
-        for (int sq = 0; sq < 64; sq++){
-            long curSquareMask = 1L << sq;  // correct per A1=LSB layout
-            long mask = Masks.getDiagonalMasks(sq) &~ curSquareMask;
-            mask &= bishopBlockerMask(sq);
-
-            Long[] curBlockerMasks  = Utils.generateAllBlockerBitboards(mask);
-
-            for(int i = 0; i < curBlockerMasks.length; i++){
-                long legalMoves = getBishopMoves(sq, curBlockerMasks[i]);
-                PositionBitboard positionBitboard = new PositionBitboard(sq, curBlockerMasks[i]);
-                table.put(positionBitboard, legalMoves);
-            }
-        }
-
-        System.out.println("Bishop table size: " + table.size());
-        return table;
-    }
-
-
-
     public static long getBishopMoves(int startSquare, long bitboard) {
         long moves = 0L;
         int rank = startSquare / 8;
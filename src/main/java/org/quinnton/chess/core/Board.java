@@ -74,8 +74,23 @@ public class Board {
     // bit 0: wK moved, 1: bK moved, 2: wKR moved, 3: wQR moved, 4: bKR moved, 5: bQR moved
     private final int[] undoCastle = new int[MAX_PLY];
 
+    // position key before the move
+    private final long[] undoKey = new long[MAX_PLY];
+
     private int ply = 0;
 
+    // ------------------------------------------------------------
+    // Zobrist key (kept incrementally, see Zobrist)
+    // ------------------------------------------------------------
+    // -Dchess.debugZobrist=true checks every make/unmake against a full recompute
+    private static final boolean DEBUG_ZOBRIST = Boolean.getBoolean("chess.debugZobrist");
+
+    // -Dchess.debugMoveGen=true checks every legal move list against the
+    // make/unmake reference generator (see MoveGen.generateLegalMovesFlat)
+    static final boolean DEBUG_MOVEGEN = Boolean.getBoolean("chess.debugMoveGen");
+
+    private long zobristKey;
+
     public Board(Masks masks) {
         this.masks = masks;
     }
@@ -98,6 +113,10 @@ public class Board {
         return (turnCounter % 2) == 0;
     }
 
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
     public int[] getLegalMovesArray() {
         return legalMoves;
     }
@@ -212,6 +231,8 @@ public class Board {
         setKingSquares();
         lookForChecks();
 
+        zobristKey = Zobrist.compute(this);
+
         // initial legal moves
         legalMoveCount = MoveGen.generateLegalMovesFlat(this, masks, legalMoves);
 
@@ -230,6 +251,7 @@ public class Board {
 
         // save + clear EP by default (UI path can just store prev locally if needed)
         int prevEp = enPassantSquare;
+        long key = zobristKey ^ Zobrist.state(prevEp, packCastleFlags());
         enPassantSquare = -1;
 
         // -------------------------
@@ -238,10 +260,12 @@ public class Board {
         if (flags == Move.FLAG_EN_PASSANT) {
             int capSq = mover.isWhite() ? (to - 8) : (to + 8);
             Piece capPiece = mailbox[capSq];
+            key ^= pieceKeyDelta(m, capPiece);
             if (capPiece != null) setBitboardBit(capPiece, capSq, false);
             mailbox[capSq] = null;
         } else {
             Piece capPiece = mailbox[to];
+            key ^= pieceKeyDelta(m, capPiece);
             if (capPiece != null) {
                 setBitboardBit(capPiece, to, false);
                 mailbox[to] = null;
@@ -304,6 +328,10 @@ public class Board {
         // castling rights flags (based on what moved)
         checkCastlingPieces(from);
 
+        // side to move is hashed by addTurnCounter()
+        zobristKey = key ^ Zobrist.state(enPassantSquare, packCastleFlags());
+        if (DEBUG_ZOBRIST) verifyZobrist();
+
         // restore prevEp not used here (kept in internal undo stack instead)
         // kept line to avoid “unused” confusion:
         @SuppressWarnings("unused")
@@ -391,36 +419,17 @@ public class Board {
 
     public void addTurnCounter() {
         this.turnCounter++;
+        zobristKey ^= Zobrist.SIDE;
         legalMoveCount = MoveGen.generateLegalMovesFlat(this, masks, legalMoves);
     }
 
 
+    /**
+     * Every square attacked by one side, including squares holding its own pieces.
+     * Castling is not an attack and is never included.
+     */
     public long getAttackMask(boolean byWhite) {
-        long mask = 0L;
-
-        long bb = byWhite ? getAllWhitePieces() : getAllBlackPieces();
-
-        // Attack mask does NOT include castling; pawnAttackMask=true means:
-        // pawn generators emit diagonal attacks even if empty.
-        int[] moves = new int[MAX_MOVES];
-
-        while (bb != 0) {
-            int from = Long.numberOfTrailingZeros(bb);
-            bb &= bb - 1;
-
-            Piece p = getPieceAtSquare(from);
-            if (p == null) continue;
-            if (p.isWhite() != byWhite) continue;
-
-            int count = MoveGen.generateInto(this, from, p, masks, false, true, moves, 0);
-
-            for (int i = 0; i < count; i++) {
-                int to = Move.to(moves[i]);
-                mask |= 1L << to;
-            }
-        }
-
-        return mask;
+        return Attacks.attackedBy(this, byWhite, getAllPieces());
     }
 
 //    private void lookForChecks() {
@@ -456,105 +465,7 @@ public class Board {
      * @return true means it is being attacked false means it is not
      */
     public boolean isSquareAttacked(int sq, boolean isWhite){
-        long occ = getAllPieces();
-
-        long b = 1L << sq;
-
-        // Black and White Pawns
-        if (isWhite) {
-            long pawns = getBitboard(Piece.BP);
-
-            long attacks =
-                    ((b & Masks.NOT_FILE_H) << 7) |   // attacker from sq-7
-                            ((b & Masks.NOT_FILE_A) << 9);    // attacker from sq-9
-
-            if ((attacks & pawns) != 0) {
-//                System.out.println("In check from black pawn");
-                return true;
-            }
-        } else { // is black king in check? -> attacked by WHITE pawns
-            long pawns = getBitboard(Piece.WP);
-
-            long attacks =
-                    ((b & Masks.NOT_FILE_A) >>> 7) |    // attacker from sq+7
-                            ((b & Masks.NOT_FILE_H) >>> 9);     // attacker from sq+9
-
-            if ((attacks & pawns) != 0) return true;
-        }
-
-
-        if (isWhite){
-            // Knight
-            long knightAttacks = Masks.knightMoves.get(sq);
-            if ((knightAttacks & getBitboard(Piece.BN)) != 0){
-//                System.out.println("In check from Knight");
-                return true;
-            }
-
-            // Kings
-            long kingAttacks = Masks.kingMoves.get(sq);
-            if ((kingAttacks & getBitboard(Piece.BK)) != 0){
-//                System.out.println("In check from Black king");
-                return true;
-            }
-
-            // Bishop and Queen diag
-            long bSubset = occ & BishopMoveMasks.bishopBlockerMask(sq);
-            long bishopAttacks = masks.getBishopMoves(sq, bSubset);
-
-            if ((bishopAttacks & getBitboard(Piece.BB)) != 0 || (bishopAttacks & getBitboard(Piece.BQ)) != 0){
-//                System.out.println("In check from Queen or bishop diag");
-                return true;
-            }
-
-            // Rook and Queen straight
-            long rSubset = occ & RookMoveMasks.rookBlockerMask(sq);
-            long rookAttacks = masks.getRookMoves(sq, rSubset);
-
-            if ((rookAttacks & getBitboard(Piece.BR)) != 0 || (rookAttacks & getBitboard(Piece.BQ)) != 0){
-//                System.out.println("In check from Rook or Queen straight");
-                return true;
-            }
-        }
-        else{
-            // Knight
-            long knightAttacks = Masks.knightMoves.get(sq);
-            if ((knightAttacks & getBitboard(Piece.WN)) != 0) {
-//                System.out.println("In check from Knight");
-                return true;
-            }
-
-            // King
-            long kingAttacks = Masks.kingMoves.get(sq);
-            if ((kingAttacks & getBitboard(Piece.WK)) != 0) {
-//                System.out.println("In check from White king");
-                return true;
-            }
-
-            // Bishop and Queen (diagonals)
-            long bSubset = occ & BishopMoveMasks.bishopBlockerMask(sq);
-            long bishopAttacks = masks.getBishopMoves(sq, bSubset);
-
-            if ((bishopAttacks & getBitboard(Piece.WB)) != 0 ||
-                    (bishopAttacks & getBitboard(Piece.WQ)) != 0) {
-//                System.out.println("In check from Queen or bishop diag");
-                return true;
-            }
-
-            // Rook and Queen (ranks/files)
-            long rSubset = occ & RookMoveMasks.rookBlockerMask(sq);
-            long rookAttacks = masks.getRookMoves(sq, rSubset);
-
-            if ((rookAttacks & getBitboard(Piece.WR)) != 0 ||
-                    (rookAttacks & getBitboard(Piece.WQ)) != 0) {
-//                System.out.println("In check from Rook or Queen straight");
-                return true;
-            }
-        }
-
-
-
-        return false;
+        return Attacks.isAttackedBy(this, sq, !isWhite, getAllPieces());
     }
 
 
@@ -598,6 +509,9 @@ public class Board {
         // save undo state
         undoEp[ply] = enPassantSquare;
         undoCastle[ply] = packCastleFlags();
+        undoKey[ply] = zobristKey;
+
+        long key = zobristKey ^ Zobrist.state(enPassantSquare, undoCastle[ply]) ^ Zobrist.SIDE;
 
         Piece mover = Move.piece(m);
         int from = Move.from(m);
@@ -614,12 +528,14 @@ public class Board {
             int capSq = mover.isWhite() ? (to - 8) : (to + 8);
             Piece capPiece = mailbox[capSq];
             capturedId = (capPiece == null) ? 0 : (capPiece.ordinal() + 1);
+            key ^= pieceKeyDelta(m, capPiece);
 
             if (capPiece != null) setBitboardBit(capPiece, capSq, false);
             mailbox[capSq] = null;
         } else {
             Piece capPiece = mailbox[to];
             capturedId = (capPiece == null) ? 0 : (capPiece.ordinal() + 1);
+            key ^= pieceKeyDelta(m, capPiece);
 
             if (capPiece != null) {
                 setBitboardBit(capPiece, to, false);
@@ -686,8 +602,12 @@ public class Board {
 
         lookForChecks();
 
+        zobristKey = key ^ Zobrist.state(enPassantSquare, packCastleFlags());
+
         turnCounter++;
         ply++;
+
+        if (DEBUG_ZOBRIST) verifyZobrist();
     }
 
     public void unmakeMoveInternal(int m) {
@@ -759,9 +679,10 @@ public class Board {
             }
         }
 
-        // restore EP + castling flags
+        // restore EP + castling flags + key
         enPassantSquare = prevEp;
         unpackCastleFlags(prevCastle);
+        zobristKey = undoKey[ply];
 
         if (mover == Piece.WK){
             whiteKingSquare = from;
@@ -772,9 +693,82 @@ public class Board {
         }
 
         lookForChecks();
+
+        if (DEBUG_ZOBRIST) verifyZobrist();
+    }
+
+    /**
+     * Null move for the search: passes the turn without moving a piece.
+     * Clears en passant; castling, pieces and check flags are unchanged, so
+     * it must not be played while the side to move is in check.
+     */
+    public void makeNullMove() {
+        if (ply >= MAX_PLY) throw new IllegalStateException("Undo stack overflow");
+
+        undoEp[ply] = enPassantSquare;
+        undoCastle[ply] = packCastleFlags();
+        undoCapId[ply] = 0;
+        undoKey[ply] = zobristKey;
+
+        if (enPassantSquare >= 0) zobristKey ^= Zobrist.EP_FILE[enPassantSquare & 7];
+        zobristKey ^= Zobrist.SIDE;
+        enPassantSquare = -1;
+
+        turnCounter++;
+        ply++;
+
+        if (DEBUG_ZOBRIST) verifyZobrist();
+    }
+
+    public void unmakeNullMove() {
+        ply--;
+        if (ply < 0) throw new IllegalStateException("Undo stack underflow");
+
+        turnCounter--;
+        enPassantSquare = undoEp[ply];
+        zobristKey = undoKey[ply];
     }
 
-    private int packCastleFlags() {
+    /**
+     * XOR of the piece-square keys a move toggles: mover off from, mover or
+     * promotion on to, the captured piece and the castling rook.
+     * Call before the board is changed; captured may be null.
+     */
+    private static long pieceKeyDelta(int m, Piece captured) {
+        Piece mover = Move.piece(m);
+        int from = Move.from(m);
+        int to = Move.to(m);
+        int flags = Move.flags(m);
+
+        Piece promo = Move.promo(m);
+        long delta = Zobrist.piece(mover, from) ^ Zobrist.piece(promo != null ? promo : mover, to);
+
+        if (captured != null) {
+            int capSq = (flags == Move.FLAG_EN_PASSANT) ? (mover.isWhite() ? to - 8 : to + 8) : to;
+            delta ^= Zobrist.piece(captured, capSq);
+        }
+
+        if (flags == Move.FLAG_CASTLE_KS) {
+            delta ^= mover.isWhite()
+                    ? Zobrist.piece(Piece.WR, 7) ^ Zobrist.piece(Piece.WR, 5)
+                    : Zobrist.piece(Piece.BR, 63) ^ Zobrist.piece(Piece.BR, 61);
+        } else if (flags == Move.FLAG_CASTLE_QS) {
+            delta ^= mover.isWhite()
+                    ? Zobrist.piece(Piece.WR, 0) ^ Zobrist.piece(Piece.WR, 3)
+                    : Zobrist.piece(Piece.BR, 56) ^ Zobrist.piece(Piece.BR, 59);
+        }
+        return delta;
+    }
+
+    private void verifyZobrist() {
+        long expected = Zobrist.compute(this);
+        if (zobristKey != expected) {
+            throw new IllegalStateException(String.format(
+                    "Zobrist key mismatch: incremental=%016x recomputed=%016x", zobristKey, expected));
+        }
+    }
+
+    int packCastleFlags() {
         int x = 0;
         if (whiteKingHasMoved) x |= 1;
         if (blackKingHasMoved) x |= 2;
@@ -825,6 +819,8 @@ public class Board {
         b.whiteKingSquare = this.whiteKingSquare;
         b.blackKingSquare = this.blackKingSquare;
 
+        b.zobristKey = this.zobristKey;
+
         b.lastMove = -1;
         b.lastWhiteMove = -1;
         b.lastBlackMove = -1;
@@ -0,0 +1,25 @@
+package org.quinnton.chess.core;
+
+/** Fancy magic multiplication backend, see {@link Magics}. */
+public final class MagicAttacks implements SliderAttacks {
+
+    @Override
+    public long rookAttacks(int sq, long occupied) {
+        return Magics.rookAttacks(sq, occupied);
+    }
+
+    @Override
+    public long bishopAttacks(int sq, long occupied) {
+        return Magics.bishopAttacks(sq, occupied);
+    }
+
+    @Override
+    public long queenAttacks(int sq, long occupied) {
+        return Magics.queenAttacks(sq, occupied);
+    }
+
+    @Override
+    public String name() {
+        return "magic";
+    }
+}
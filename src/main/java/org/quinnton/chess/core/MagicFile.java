@@ -0,0 +1,98 @@
+package org.quinnton.chess.core;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Text format for the checked-in magic numbers:
+ *
+ *   # comment
+ *   version 1
+ *   rook   <sq> <bits> <magic hex>
+ *   bishop <sq> <bits> <magic hex>
+ *
+ * Bump VERSION whenever the index formula or the blocker masks change,
+ * so old files are rejected instead of silently producing wrong attacks.
+ */
+public final class MagicFile {
+
+    public static final int VERSION = 1;
+    public static final String RESOURCE = "/magics/magics.txt";
+
+    private MagicFile() {}
+
+    /**
+     * Parses the file into the given arrays.
+     * @return false if the version does not match or a square is missing
+     */
+    public static boolean read(InputStream in, long[] rookMagics, int[] rookBits,
+                               long[] bishopMagics, int[] bishopBits) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+
+        int version = -1;
+        long rookSeen = 0L;
+        long bishopSeen = 0L;
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+
+            String[] parts = line.split("\\s+");
+            switch (parts[0]) {
+                case "version" -> version = Integer.parseInt(parts[1]);
+                case "rook", "bishop" -> {
+                    if (parts.length != 4) throw new IllegalArgumentException("Bad magic line: " + line);
+                    int sq = Integer.parseInt(parts[1]);
+                    int bits = Integer.parseInt(parts[2]);
+                    long magic = Long.parseUnsignedLong(parts[3], 16);
+
+                    if (parts[0].equals("rook")) {
+                        rookMagics[sq] = magic;
+                        rookBits[sq] = bits;
+                        rookSeen |= 1L << sq;
+                    } else {
+                        bishopMagics[sq] = magic;
+                        bishopBits[sq] = bits;
+                        bishopSeen |= 1L << sq;
+                    }
+                }
+                default -> throw new IllegalArgumentException("Unknown magic line: " + line);
+            }
+        }
+
+        return version == VERSION && rookSeen == -1L && bishopSeen == -1L;
+    }
+
+    public static void write(Path path, MagicTable[] rook, MagicTable[] bishop) throws IOException {
+        Path parent = path.getParent();
+        if (parent != null) Files.createDirectories(parent);
+
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8))) {
+            int rookSlots = 0;
+            int bishopSlots = 0;
+            for (int sq = 0; sq < 64; sq++) {
+                rookSlots += rook[sq].attacks.length;
+                bishopSlots += bishop[sq].attacks.length;
+            }
+
+            out.println("# Magic numbers for slider attack tables, generated by MagicGenerator.");
+            out.println("# Do not edit by hand. Format: <piece> <square> <index bits> <magic hex>");
+            out.printf("# rook slots=%d bishop slots=%d%n", rookSlots, bishopSlots);
+            out.println("version " + VERSION);
+
+            for (int sq = 0; sq < 64; sq++) {
+                out.printf("rook %d %d %016x%n", sq, rook[sq].rbits, rook[sq].magic);
+            }
+            for (int sq = 0; sq < 64; sq++) {
+                out.printf("bishop %d %d %016x%n", sq, bishop[sq].rbits, bishop[sq].magic);
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package org.quinnton.chess.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Offline tool that searches magic numbers for every square and writes them to
+ * the resource file loaded by {@link Magics}.
+ *
+ * Usage: MagicGenerator [output path] [seed]
+ *
+ * The file stores the index width per square, so denser sets (fewer bits on
+ * some squares) can be dropped in later without touching the loader.
+ */
+public final class MagicGenerator {
+
+    private static final String DEFAULT_OUTPUT = "src/main/resources" + MagicFile.RESOURCE;
+
+    private MagicGenerator() {}
+
+    public static void main(String[] args) throws IOException {
+        Path output = Path.of(args.length > 0 ? args[0] : DEFAULT_OUTPUT);
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : System.nanoTime();
+
+        Random rng = new Random(seed);
+        MagicTable[] rook = new MagicTable[64];
+        MagicTable[] bishop = new MagicTable[64];
+
+        long start = System.nanoTime();
+        for (int sq = 0; sq < 64; sq++) {
+            rook[sq] = Magics.findMagic(sq, true, Magics.relevantBits(sq, true), rng, Integer.MAX_VALUE);
+            bishop[sq] = Magics.findMagic(sq, false, Magics.relevantBits(sq, false), rng, Integer.MAX_VALUE);
+        }
+
+        // every table is rebuilt from its magic and checked against the ray walkers
+        for (int sq = 0; sq < 64; sq++) {
+            if (!verify(sq, true, rook[sq]) || !verify(sq, false, bishop[sq])) {
+                throw new IllegalStateException("Magic for square " + sq + " failed verification");
+            }
+        }
+
+        MagicFile.write(output, rook, bishop);
+
+        // round trip: the written file must load back to the same numbers
+        long[] rookMagics = new long[64];
+        int[] rookBits = new int[64];
+        long[] bishopMagics = new long[64];
+        int[] bishopBits = new int[64];
+        try (InputStream in = Files.newInputStream(output)) {
+            if (!MagicFile.read(in, rookMagics, rookBits, bishopMagics, bishopBits)) {
+                throw new IllegalStateException("Written magic file does not read back");
+            }
+        }
+        for (int sq = 0; sq < 64; sq++) {
+            if (rookMagics[sq] != rook[sq].magic || bishopMagics[sq] != bishop[sq].magic) {
+                throw new IllegalStateException("Round trip mismatch on square " + sq);
+            }
+        }
+
+        long ms = (System.nanoTime() - start) / 1_000_000L;
+        System.out.printf("Wrote %s in %dms (seed=%d, rook slots=%d, bishop slots=%d)%n",
+                output, ms, seed, slots(rook), slots(bishop));
+    }
+
+    private static boolean verify(int sq, boolean rook, MagicTable table) {
+        MagicTable rebuilt = Magics.buildTable(sq, rook, table.rbits, table.magic);
+        if (rebuilt == null) return false;
+
+        long[] occupancies = SliderTables.subsets(rebuilt.mask);
+        for (long occ : occupancies) {
+            long expected = rook
+                    ? RookMoveMasks.getLegalMoves(sq, occ)
+                    : BishopMoveMasks.getBishopMoves(sq, occ);
+            if (rebuilt.get(occ) != expected) return false;
+        }
+        return true;
+    }
+
+    private static int slots(MagicTable[] tables) {
+        int total = 0;
+        for (MagicTable t : tables) total += t.attacks.length;
+        return total;
+    }
+}
@@ -3,6 +3,7 @@ package org.quinnton.chess.core;
 public final class MagicTable {
     final long magic;     // the 64-bit magic number
     final int rbits;      // index width (popcount of blocker mask)
+    final int shift;      // 64 - rbits
     final long mask;      // relevant blocker mask (inner rays)
     final long[] attacks; // size = 1 << rbits
     final int sizeMask;   // (1 << rbits) - 1
@@ -10,9 +11,14 @@ public final class MagicTable {
     MagicTable(long magic, int rbits, long mask, long[] attacks) {
         this.magic = magic;
         this.rbits = rbits;
+        this.shift = 64 - rbits;
         this.mask = mask;
         this.attacks = attacks;
         this.sizeMask = (1 << rbits) - 1;
     }
-}
 
+    /** Attack set for the full board occupancy (masking happens here). */
+    long get(long occupied) {
+        return attacks[(int) (((occupied & mask) * magic) >>> shift)];
+    }
+}
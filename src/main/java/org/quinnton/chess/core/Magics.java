@@ -0,0 +1,145 @@
+package org.quinnton.chess.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+
+/**
+ * Fancy magic bitboards for rooks and bishops.
+ * index = ((occ & mask) * magic) >>> (64 - bits), one flat long[] per square.
+ *
+ * Magic numbers are loaded from {@link MagicFile#RESOURCE} (written offline by
+ * {@link MagicGenerator}); only the attack tables are filled at startup.
+ */
+public final class Magics {
+
+    static final MagicTable[] ROOK   = new MagicTable[64];
+    static final MagicTable[] BISHOP = new MagicTable[64];
+
+    // fixed seed so the fallback search builds the same tables every run
+    private static final long SEED = 0x5EED_C0FFEEL;
+
+    static {
+        if (!loadFromResource()) {
+            System.err.println("Magic table resource missing or stale, searching magics at startup");
+            Random rng = new Random(SEED);
+            for (int sq = 0; sq < 64; sq++) {
+                ROOK[sq]   = findMagic(sq, true, relevantBits(sq, true), rng, Integer.MAX_VALUE);
+                BISHOP[sq] = findMagic(sq, false, relevantBits(sq, false), rng, Integer.MAX_VALUE);
+            }
+        }
+    }
+
+    private Magics() {}
+
+    public static long rookAttacks(int sq, long occupied) {
+        return ROOK[sq].get(occupied);
+    }
+
+    public static long bishopAttacks(int sq, long occupied) {
+        return BISHOP[sq].get(occupied);
+    }
+
+    public static long queenAttacks(int sq, long occupied) {
+        return ROOK[sq].get(occupied) | BISHOP[sq].get(occupied);
+    }
+
+    // ------------------------------------------------------------
+    // Loading
+    // ------------------------------------------------------------
+    private static boolean loadFromResource() {
+        long[] rookMagics = new long[64];
+        int[] rookBits = new int[64];
+        long[] bishopMagics = new long[64];
+        int[] bishopBits = new int[64];
+
+        try (InputStream in = Magics.class.getResourceAsStream(MagicFile.RESOURCE)) {
+            if (in == null) return false;
+            if (!MagicFile.read(in, rookMagics, rookBits, bishopMagics, bishopBits)) return false;
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Could not read magic table: " + e.getMessage());
+            return false;
+        }
+
+        for (int sq = 0; sq < 64; sq++) {
+            MagicTable r = buildTable(sq, true, rookBits[sq], rookMagics[sq]);
+            MagicTable b = buildTable(sq, false, bishopBits[sq], bishopMagics[sq]);
+            if (r == null || b == null) {
+                System.err.println("Magic table entry for square " + sq + " does not verify");
+                return false;
+            }
+            ROOK[sq] = r;
+            BISHOP[sq] = b;
+        }
+        return true;
+    }
+
+    // ------------------------------------------------------------
+    // Table building (shared by the loader, the fallback search and MagicGenerator)
+    // ------------------------------------------------------------
+    static long blockerMask(int sq, boolean rook) {
+        return rook ? RookMoveMasks.rookBlockerMask(sq) : BishopMoveMasks.bishopBlockerMask(sq);
+    }
+
+    static int relevantBits(int sq, boolean rook) {
+        return Long.bitCount(blockerMask(sq, rook));
+    }
+
+    /**
+     * Fills the attack table for a known magic. Returns null if the magic
+     * has a destructive collision (different attacks on the same index).
+     */
+    static MagicTable buildTable(int sq, boolean rook, int bits, long magic) {
+        long mask = blockerMask(sq, rook);
+        if (bits <= 0 || bits > 12) return null;
+
+        long[] occupancies = SliderTables.subsets(mask);
+        long[] reference = SliderTables.referenceAttacks(sq, rook, occupancies);
+
+        long[] attacks = new long[1 << bits];
+        int[] epoch = new int[1 << bits];
+        if (!tryMagic(magic, 64 - bits, occupancies, reference, attacks, epoch, 1)) return null;
+
+        return new MagicTable(magic, bits, mask, attacks);
+    }
+
+    /**
+     * Trial-and-error search with sparse random numbers.
+     * Returns null if nothing was found within maxTries.
+     */
+    static MagicTable findMagic(int sq, boolean rook, int bits, Random rng, int maxTries) {
+        long mask = blockerMask(sq, rook);
+        long[] occupancies = SliderTables.subsets(mask);
+        long[] reference = SliderTables.referenceAttacks(sq, rook, occupancies);
+
+        long[] attacks = new long[1 << bits];
+        int[] epoch = new int[1 << bits];
+        int shift = 64 - bits;
+
+        for (int attempt = 1; attempt <= maxTries; attempt++) {
+            long magic = rng.nextLong() & rng.nextLong() & rng.nextLong();
+
+            // quick reject: need enough high bits to spread the index
+            if (Long.bitCount((mask * magic) & 0xFF00000000000000L) < 6) continue;
+
+            if (tryMagic(magic, shift, occupancies, reference, attacks, epoch, attempt)) {
+                return new MagicTable(magic, bits, mask, attacks);
+            }
+        }
+        return null;
+    }
+
+    private static boolean tryMagic(long magic, int shift, long[] occupancies, long[] reference,
+                                    long[] attacks, int[] epoch, int stamp) {
+        for (int i = 0; i < occupancies.length; i++) {
+            int idx = (int) ((occupancies[i] * magic) >>> shift);
+            if (epoch[idx] != stamp) {
+                epoch[idx] = stamp;
+                attacks[idx] = reference[i];
+            } else if (attacks[idx] != reference[i]) {
+                return false; // destructive collision
+            }
+        }
+        return true;
+    }
+}
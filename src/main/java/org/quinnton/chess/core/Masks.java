@@ -1,18 +1,20 @@
 package org.quinnton.chess.core;
 
-import java.util.HashMap;
-
 public class Masks {
+    // all tables are static and built in the static initializer below;
+    // the constructor is only kept so existing callers can still pass a Masks around
     public Masks(){
-        onload();
     }
 
-    // precomputed masks such as FILE_A, NOT_A_FILE, RANK_2, etc.
-    static HashMap<Integer, Long> knightMoves = new HashMap<>();
-    static HashMap<Integer, Long> kingMoves = new HashMap<>();
-    static HashMap<PositionBitboard, Long> rookMoves = new HashMap<>();
-    static HashMap<PositionBitboard, Long> bishopMoves = new HashMap<>();
-    static HashMap<Integer, Long> diagonalMaskTable = new HashMap<>();
+    // precomputed per-square tables, indexed by square (a1 = 0)
+    public static final long[] KNIGHT_MOVES = new long[64];
+    public static final long[] KING_MOVES = new long[64];
+    public static final long[] WHITE_PAWN_ATTACKS = new long[64];
+    public static final long[] BLACK_PAWN_ATTACKS = new long[64];
+    public static final long[] DIAGONAL_MASKS = new long[64];
+
+    // slider backend, chosen once with -Dchess.sliders=magic|pext
+    public static final SliderAttacks SLIDERS = SliderAttacks.fromProperty();
 
     // Move Masks
     public static long QUEEN_MOVE_MASK = 0;
@@ -57,9 +59,7 @@ public class Masks {
 
 
     // generate diagonal masks
-    private static final HashMap<Integer, Long> generateDiagonalMasks() {
-        HashMap<Integer, Long> table = new HashMap<>();
-
+    private static void generateDiagonalMasks() {
         for (int sq = 0; sq < 64; sq++) {
             int rank = sq / 8;
             int file = sq % 8;
@@ -80,16 +80,14 @@ public class Masks {
                 }
             }
 
-            table.put(sq, mask);
+            DIAGONAL_MASKS[sq] = mask;
         }
-
-        return table;
     }
 
 
     // get Diagonal mask in both directions based off of square
-    public static final long getDiagonalMasks(int sq){
-        return diagonalMaskTable.get(sq);
+    public static long getDiagonalMasks(int sq){
+        return DIAGONAL_MASKS[sq];
     }
 
 
@@ -105,76 +103,60 @@ public class Masks {
     };
 
 
-    private static void generateKingMoves() {
-        HashMap<Integer, Long> moves = new HashMap<Integer, Long>(64);
+    private static long stepMask(int sq, int[][] dirs) {
+        int rank = sq / 8;
+        int file = sq % 8;
+        long mask = 0L;
 
-        for (int sq = 0; sq < 64; sq++) {
-            int rank = sq / 8;
-            int file = sq % 8;
-            long mask = 0L;
-
-            for (int[] d : KING_DIRS) {
-                int r = rank + d[0];
-                int f = file + d[1];
-                if (r >= 0 && r < 8 && f >= 0 && f < 8) {
-                    int targetSquare = r * 8 + f;
-                    mask |= (1L << targetSquare);
-                }
+        for (int[] d : dirs) {
+            int r = rank + d[0];
+            int f = file + d[1];
+            if (r >= 0 && r < 8 && f >= 0 && f < 8) {
+                int targetSquare = r * 8 + f;
+                mask |= (1L << targetSquare);
             }
-            moves.put(sq, mask);
         }
-        kingMoves = moves;
+        return mask;
     }
 
-
-
-
-    private static void generateKnightMoves() {
-        HashMap<Integer, Long> moves = new HashMap<Integer, Long>(64);
-
+    static {
         for (int sq = 0; sq < 64; sq++) {
-            int rank = sq / 8;
-            int file = sq % 8;
-            long mask = 0L;
+            KNIGHT_MOVES[sq] = stepMask(sq, KNIGHT_DIRS);
+            KING_MOVES[sq] = stepMask(sq, KING_DIRS);
 
-            for (int[] d : KNIGHT_DIRS) {
-                int r = rank + d[0];
-                int f = file + d[1];
-                if (r >= 0 && r < 8 && f >= 0 && f < 8) {
-                    int targetSquare = r * 8 + f;
-                    mask |= (1L << targetSquare);
-                }
-            }
-            moves.put(sq, mask);
+            // squares a pawn on sq attacks (not the squares it could be attacked from)
+            long b = 1L << sq;
+            WHITE_PAWN_ATTACKS[sq] = ((b & NOT_FILE_A) << 7) | ((b & NOT_FILE_H) << 9);
+            BLACK_PAWN_ATTACKS[sq] = ((b & NOT_FILE_H) >>> 7) | ((b & NOT_FILE_A) >>> 9);
         }
-        knightMoves = moves;
+        generateDiagonalMasks();
     }
 
 
-    public long getKnightMoves(int sq){
-        return this.knightMoves.get(sq);
+    public static long getKnightMoves(int sq){
+        return KNIGHT_MOVES[sq];
     }
 
-    public static void onload(){
-        generateKnightMoves();
-        generateKingMoves();
-        diagonalMaskTable = generateDiagonalMasks();
-        rookMoves = RookMoveMasks.generateRookLookupTable();
-        bishopMoves = BishopMoveMasks.generateBishopLookupTable();
+    public static long getKingMoves(int sq) {
+        return KING_MOVES[sq];
     }
 
-
-    public long getKingMoves(int sq) {
-        return this.kingMoves.get(sq);
+    public static long getPawnAttacks(int sq, boolean isWhite) {
+        return isWhite ? WHITE_PAWN_ATTACKS[sq] : BLACK_PAWN_ATTACKS[sq];
     }
 
 
-    public long getRookMoves(int sq, long blockerBitboard) {
-        return this.rookMoves.get(new PositionBitboard(sq, blockerBitboard));
+    // sliders go through the selected backend; pass the full occupancy, masking happens inside
+    public static long getRookMoves(int sq, long occupied) {
+        return SLIDERS.rookAttacks(sq, occupied);
+    }
+
+    public static long getBishopMoves(int sq, long occupied) {
+        return SLIDERS.bishopAttacks(sq, occupied);
     }
 
-    public long getBishopMoves(int sq, long blockerBitboard) {
-        return this.bishopMoves.get(new PositionBitboard(sq, blockerBitboard));
+    public static long getQueenMoves(int sq, long occupied) {
+        return SLIDERS.queenAttacks(sq, occupied);
     }
 
 
@@ -1,8 +1,15 @@
 package org.quinnton.chess.core;
 
+import java.util.Arrays;
+
 public final class MoveGen {
     private static final int MAX_MOVES = 256;
 
+    // which kinds of moves a generator call should emit
+    private static final int GEN_CAPTURES = 1; // captures, en passant and every promotion
+    private static final int GEN_QUIETS   = 2; // everything else, including castling
+    private static final int GEN_ALL      = GEN_CAPTURES | GEN_QUIETS;
+
     private MoveGen() {}
 
     // ------------------------------------------------------------
@@ -17,14 +24,29 @@ public final class MoveGen {
             boolean pawnAttackMask,
             int[] out,
             int count
+    ) {
+        long targets = ~(piece.isWhite() ? board.getAllWhitePieces() : board.getAllBlackPieces());
+        return generateInto(board, fromSq, piece, includeCastling, pawnAttackMask, targets, out, count);
+    }
+
+    /** Same as above, but only emits moves landing on `targets` (EP is emitted regardless). */
+    private static int generateInto(
+            Board board,
+            int fromSq,
+            Piece piece,
+            boolean includeCastling,
+            boolean pawnAttackMask,
+            long targets,
+            int[] out,
+            int count
     ) {
         return switch (piece) {
-            case WP, BP -> genPawns(board, fromSq, piece.isWhite(), pawnAttackMask, out, count);
-            case WN, BN -> genKnights(board, fromSq, piece.isWhite(), masks, out, count);
-            case WB, BB -> genBishops(board, fromSq, piece.isWhite(), masks, out, count);
-            case WR, BR -> genRooks(board, fromSq, piece.isWhite(), masks, out, count);
-            case WQ, BQ -> genQueens(board, fromSq, piece.isWhite(), masks, out, count);
-            case WK, BK -> genKings(board, fromSq, piece.isWhite(), masks, includeCastling, out, count);
+            case WP, BP -> genPawns(board, 1L << fromSq, piece.isWhite(), pawnAttackMask, true, GEN_ALL, targets, out, count);
+            case WN, BN -> genKnights(board, fromSq, piece.isWhite(), targets, out, count);
+            case WB, BB -> genBishops(board, fromSq, piece.isWhite(), targets, out, count);
+            case WR, BR -> genRooks(board, fromSq, piece.isWhite(), targets, out, count);
+            case WQ, BQ -> genQueens(board, fromSq, piece.isWhite(), targets, out, count);
+            case WK, BK -> genKings(board, fromSq, piece.isWhite(), includeCastling, targets, out, count);
         };
     }
 
@@ -41,7 +63,12 @@ public final class MoveGen {
         int count = 0;
 
         boolean whiteToMove = board.getTurnCounter();
-        long bb = whiteToMove ? board.getAllWhitePieces() : board.getAllBlackPieces();
+        long own = whiteToMove ? board.getAllWhitePieces() : board.getAllBlackPieces();
+        long pawns = board.getBitboard(whiteToMove ? Piece.WP : Piece.BP);
+        long bb = own & ~pawns;
+
+        // all pawns at once, then the pieces square by square
+        count = genPawns(board, pawns, whiteToMove, false, true, GEN_ALL, ~own, out, count);
 
         while (bb != 0) {
             int sq = Long.numberOfTrailingZeros(bb);
@@ -62,12 +89,131 @@ public final class MoveGen {
     }
 
     // ------------------------------------------------------------
-    // Flat LEGAL generation: filters pseudo by make/unmake
-    // Writes legal moves into `out`, returns count
-    // Uses a local temp array to hold pseudo moves.
+    // Flat LEGAL generation
+    // Checkers and pinned pieces are computed once up front, so every
+    // emitted move is legal without make/unmake. Writes into `out`, returns count.
     // ------------------------------------------------------------
     public static int generateLegalMovesFlat(Board board, Masks masks, int[] out) {
-        // temp pseudo buffer
+        int count = generateLegal(board, -1L, GEN_ALL, out);
+        if (Board.DEBUG_MOVEGEN) verifyLegalMoves(board, masks, out, count);
+        return count;
+    }
+
+    /**
+     * Legal captures, en passant and promotions (including quiet promotions).
+     * This is the move set for quiescence search and the first picker stage.
+     */
+    public static int generateCaptures(Board board, int[] out) {
+        return generateLegal(board, -1L, GEN_CAPTURES, out);
+    }
+
+    /** Legal non-capturing, non-promoting moves, castling included. */
+    public static int generateQuiets(Board board, int[] out) {
+        return generateLegal(board, -1L, GEN_QUIETS, out);
+    }
+
+    /**
+     * True if the encoded move is legal in the current position.
+     * Only the moving piece's moves are generated, so this is cheap enough
+     * to validate hash and killer moves before full generation.
+     * `scratch` must hold at least 32 moves (the most a single piece can have).
+     */
+    public static boolean isLegal(Board board, int m, int[] scratch) {
+        if (m == 0) return false;
+
+        int from = Move.from(m);
+        Piece piece = board.getPieceAtSquare(from);
+        if (piece == null || piece.id() != Move.pieceId(m) || piece.isWhite() != board.getTurnCounter()) return false;
+
+        int count = generateLegal(board, 1L << from, GEN_ALL, scratch);
+        for (int i = 0; i < count; i++) {
+            if (scratch[i] == m) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Legal moves of the side to move, restricted to pieces standing on `fromMask`
+     * and to the requested kinds (GEN_CAPTURES / GEN_QUIETS / GEN_ALL).
+     */
+    private static int generateLegal(Board board, long fromMask, int kinds, int[] out) {
+        boolean white = board.getTurnCounter();
+        int kingSq = white ? board.whiteKingSquare : board.blackKingSquare;
+
+        long own   = white ? board.getAllWhitePieces() : board.getAllBlackPieces();
+        long enemy = white ? board.getAllBlackPieces() : board.getAllWhitePieces();
+        long occ   = own | enemy;
+
+        long checkers = Attacks.attackersTo(board, kingSq, occ) & enemy;
+        long pinned   = pinnedPieces(board, kingSq, white, own, occ);
+
+        // piece destinations allowed by the requested kinds
+        long kindTargets = switch (kinds) {
+            case GEN_CAPTURES -> enemy;
+            case GEN_QUIETS -> ~occ;
+            default -> -1L;
+        };
+
+        int count = 0;
+        boolean kingIncluded = ((fromMask >>> kingSq) & 1L) != 0;
+        if (kingIncluded) count = genKingLegal(board, kingSq, white, ~own & kindTargets, enemy, occ, out, count);
+
+        // double check: only the king can move
+        if (Long.bitCount(checkers) > 1) return count;
+
+        long evasion = -1L;
+        if (checkers != 0) {
+            // single check: capture the checker or block the ray
+            evasion = checkers | Attacks.BETWEEN[kingSq][Long.numberOfTrailingZeros(checkers)];
+        } else if (kingIncluded && (kinds & GEN_QUIETS) != 0) {
+            count = kingCastling(board, kingSq, white, out, count);
+        }
+        long targets = ~own & evasion & kindTargets;
+
+        // unpinned pawns in one go, pinned ones one at a time along their pin line.
+        // Pawns sort moves by kind themselves (a quiet push can be a promotion).
+        long pawns = board.getBitboard(white ? Piece.WP : Piece.BP) & fromMask;
+        long pawnTargets = ~own & evasion;
+        count = genPawns(board, pawns & ~pinned, white, false, false, kinds, pawnTargets, out, count);
+
+        long pinnedPawns = pawns & pinned;
+        while (pinnedPawns != 0) {
+            int sq = Long.numberOfTrailingZeros(pinnedPawns);
+            pinnedPawns &= pinnedPawns - 1;
+            count = genPawns(board, 1L << sq, white, false, false, kinds, pawnTargets & Attacks.LINE[kingSq][sq], out, count);
+        }
+
+        long pieces = own & fromMask & ~(1L << kingSq) & ~pawns;
+        while (pieces != 0) {
+            int sq = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+
+            Piece piece = board.getPieceAtSquare(sq);
+            if (piece == null) continue;
+
+            // a pinned piece may only slide along the king-pinner line
+            long pieceTargets = ((pinned >>> sq) & 1L) != 0 ? targets & Attacks.LINE[kingSq][sq] : targets;
+
+            count = switch (piece) {
+                case WN, BN -> genKnights(board, sq, white, pieceTargets, out, count);
+                case WB, BB -> genBishops(board, sq, white, pieceTargets, out, count);
+                case WR, BR -> genRooks(board, sq, white, pieceTargets, out, count);
+                case WQ, BQ -> genQueens(board, sq, white, pieceTargets, out, count);
+                case WP, BP, WK, BK -> count;
+            };
+            if (count >= out.length) return out.length;
+        }
+
+        if ((kinds & GEN_CAPTURES) == 0) return count;
+        return genEnPassantLegal(board, kingSq, white, checkers, occ, fromMask, out, count);
+    }
+
+    /**
+     * Reference legal generator: pseudo-legal moves filtered by make/unmake.
+     * Much slower; with -Dchess.debugMoveGen=true every list from
+     * generateLegalMovesFlat is checked against it (run perft to cover a tree).
+     */
+    public static int generateLegalMovesByMakeUnmake(Board board, Masks masks, int[] out) {
         int[] pseudo = new int[MAX_MOVES];
         int pseudoCount = generatePseudoLegalMovesFlat(board, masks, true, pseudo);
 
@@ -81,10 +227,6 @@ public final class MoveGen {
             int capId = Move.capId(m);
             if (capId == Piece.WK.ordinal() + 1 || capId == Piece.BK.ordinal() + 1) continue;
 
-            // Sanity: only accept side-to-move pieces
-            Piece mover = Move.piece(m);
-            if (mover == null || mover.isWhite() != whiteToMove) continue;
-
             board.makeMoveInternal(m);
             boolean kingSafe = whiteToMove ? !board.whiteInCheck : !board.blackInCheck;
             board.unmakeMoveInternal(m);
@@ -98,15 +240,124 @@ public final class MoveGen {
         return count;
     }
 
+    private static void verifyLegalMoves(Board board, Masks masks, int[] moves, int count) {
+        int[] reference = new int[MAX_MOVES];
+        int refCount = generateLegalMovesByMakeUnmake(board, masks, reference);
+
+        int[] got = Arrays.copyOf(moves, count);
+        int[] expected = Arrays.copyOf(reference, refCount);
+        Arrays.sort(got);
+        Arrays.sort(expected);
+        if (!Arrays.equals(got, expected)) {
+            throw new IllegalStateException("Legal move generators disagree: pin/check-mask "
+                    + toUci(got) + " vs make/unmake " + toUci(expected));
+        }
+    }
+
+    private static String toUci(int[] moves) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < moves.length; i++) {
+            if (i > 0) sb.append(' ');
+            sb.append(Move.toUci(moves[i]));
+        }
+        return sb.append(']').toString();
+    }
+
+    /** Own pieces that are the only blocker between our king and an enemy slider. */
+    private static long pinnedPieces(Board board, int kingSq, boolean white, long own, long occ) {
+        long enemyQueens = board.getBitboard(white ? Piece.BQ : Piece.WQ);
+        long enemyRooks = board.getBitboard(white ? Piece.BR : Piece.WR) | enemyQueens;
+        long enemyBishops = board.getBitboard(white ? Piece.BB : Piece.WB) | enemyQueens;
+
+        // sliders that would hit the king if our own pieces were not there
+        long xrayOcc = occ & ~own;
+        long snipers = (Attacks.rook(kingSq, xrayOcc) & enemyRooks)
+                | (Attacks.bishop(kingSq, xrayOcc) & enemyBishops);
+
+        long pinned = 0L;
+        while (snipers != 0) {
+            int s = Long.numberOfTrailingZeros(snipers);
+            snipers &= snipers - 1;
+
+            long blockers = Attacks.BETWEEN[kingSq][s] & occ;
+            if (blockers != 0 && (blockers & (blockers - 1)) == 0 && (blockers & own) != 0) {
+                pinned |= blockers;
+            }
+        }
+        return pinned;
+    }
+
+    private static int genKingLegal(Board board, int from, boolean white, long allowed, long enemy, long occ, int[] out, int count) {
+        long targets = Attacks.king(from) & allowed;
+        Piece mover = white ? Piece.WK : Piece.BK;
+
+        // the king must not shield the destination from a slider behind it
+        long occWithoutKing = occ & ~(1L << from);
+
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+
+            if (Attacks.isAttackedBy(board, to, !white, occWithoutKing)) continue;
+
+            Piece captured = (((enemy >>> to) & 1L) != 0) ? board.getPieceAtSquare(to) : null;
+
+            if (count < out.length) {
+                out[count++] = Move.pack(from, to, mover, captured, null, Move.FLAG_NORMAL);
+            } else {
+                return out.length;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * En passant removes two pawns from one rank, so pin masks don't cover it:
+     * replay the occupancy change and check the king directly.
+     */
+    private static int genEnPassantLegal(Board board, int kingSq, boolean white, long checkers, long occ, long fromMask, int[] out, int count) {
+        int ep = board.getEnPassantSquare();
+        if (ep == -1) return count;
+
+        int capSq = white ? ep - 8 : ep + 8;
+        long capBit = 1L << capSq;
+
+        // in check: only legal if it removes the checking pawn or blocks
+        if (checkers != 0 && (checkers & capBit) == 0
+                && (Attacks.BETWEEN[kingSq][Long.numberOfTrailingZeros(checkers)] & (1L << ep)) == 0) {
+            return count;
+        }
+
+        Piece mover = white ? Piece.WP : Piece.BP;
+        // our pawns that attack the ep square = squares an enemy pawn on ep would attack
+        long attackers = Attacks.pawn(ep, !white) & board.getBitboard(mover) & fromMask;
+
+        long enemyQueens = board.getBitboard(white ? Piece.BQ : Piece.WQ);
+        long enemyRooks = board.getBitboard(white ? Piece.BR : Piece.WR) | enemyQueens;
+        long enemyBishops = board.getBitboard(white ? Piece.BB : Piece.WB) | enemyQueens;
+
+        while (attackers != 0) {
+            int from = Long.numberOfTrailingZeros(attackers);
+            attackers &= attackers - 1;
+
+            long after = (occ & ~(1L << from) & ~capBit) | (1L << ep);
+            if ((Attacks.rook(kingSq, after) & enemyRooks) != 0) continue;
+            if ((Attacks.bishop(kingSq, after) & enemyBishops) != 0) continue;
+
+            if (count < out.length) out[count++] = Move.pack(from, ep, mover, null, null, Move.FLAG_EN_PASSANT);
+            else return out.length;
+        }
+        return count;
+    }
+
     // ------------------------------------------------------------
     // Piece generators (append encoded int moves)
     // ------------------------------------------------------------
 
-    private static int genKnights(Board board, int from, boolean isWhite, Masks masks, int[] out, int count) {
-        long own   = isWhite ? board.getAllWhitePieces() : board.getAllBlackPieces();
+    private static int genKnights(Board board, int from, boolean isWhite, long allowed, int[] out, int count) {
         long enemy = isWhite ? board.getAllBlackPieces() : board.getAllWhitePieces();
 
-        long targets = masks.getKnightMoves(from) & ~own;
+        long targets = Attacks.knight(from) & allowed;
         Piece mover  = isWhite ? Piece.WN : Piece.BN;
 
         while (targets != 0) {
@@ -125,11 +376,10 @@ public final class MoveGen {
         return count;
     }
 
-    private static int genKings(Board board, int from, boolean isWhite, Masks masks, boolean includeCastling, int[] out, int count) {
-        long own   = isWhite ? board.getAllWhitePieces() : board.getAllBlackPieces();
+    private static int genKings(Board board, int from, boolean isWhite, boolean includeCastling, long allowed, int[] out, int count) {
         long enemy = isWhite ? board.getAllBlackPieces() : board.getAllWhitePieces();
 
-        long targets = masks.getKingMoves(from) & ~own;
+        long targets = Attacks.king(from) & allowed;
         Piece mover  = isWhite ? Piece.WK : Piece.BK;
 
         if (includeCastling) {
@@ -235,174 +485,105 @@ public final class MoveGen {
     }
 
 
-    private static int genPawns(Board board, int from, boolean isWhite, boolean pawnAttackMask, int[] out, int count) {
-        int rank = from / 8;
-        int file = from % 8;
+    // ------------------------------------------------------------
+    // Set-wise pawns: every pawn in `pawns` is shifted at once and the
+    // target sets are serialized afterwards (from = to - offset).
+    // ------------------------------------------------------------
+    private static int genPawns(Board board, long pawns, boolean isWhite, boolean pawnAttackMask, boolean includeEnPassant, int kinds, long allowed, int[] out, int count) {
+        if (pawns == 0) return count;
 
-        long occupied = board.getAllPieces();
-        long enemyBB  = isWhite ? board.getAllBlackPieces() : board.getAllWhitePieces();
-        Piece mover   = isWhite ? Piece.WP : Piece.BP;
-        int dir       = isWhite ? 1 : -1;
+        Piece mover = isWhite ? Piece.WP : Piece.BP;
 
-        boolean promotionRank = (isWhite && rank == 6) || (!isWhite && rank == 1);
+        // captures toward the a-file and toward the h-file
+        long capWest = isWhite ? (pawns & Masks.NOT_FILE_A) << 7 : (pawns & Masks.NOT_FILE_A) >>> 9;
+        long capEast = isWhite ? (pawns & Masks.NOT_FILE_H) << 9 : (pawns & Masks.NOT_FILE_H) >>> 7;
+        int westOffset = isWhite ? 7 : -9;
+        int eastOffset = isWhite ? 9 : -7;
 
         // -------------------------
         // ATTACK MASK MODE:
         // Only diagonals, even if empty. No forward pushes, no EP, no promotions.
         // -------------------------
         if (pawnAttackMask) {
-            if (isWhite) {
-                if (file > 0) {
-                    int to = from + 7;
-                    if (to >= 0 && to < 64) {
-                        if (count < out.length) out[count++] = Move.pack(from, to, mover, null, null, Move.FLAG_NORMAL);
-                        else return out.length;
-                    }
-                }
-                if (file < 7) {
-                    int to = from + 9;
-                    if (to >= 0 && to < 64) {
-                        if (count < out.length) out[count++] = Move.pack(from, to, mover, null, null, Move.FLAG_NORMAL);
-                        else return out.length;
-                    }
-                }
-            } else {
-                if (file > 0) {
-                    int to = from - 9;
-                    if (to >= 0 && to < 64) {
-                        if (count < out.length) out[count++] = Move.pack(from, to, mover, null, null, Move.FLAG_NORMAL);
-                        else return out.length;
-                    }
-                }
-                if (file < 7) {
-                    int to = from - 7;
-                    if (to >= 0 && to < 64) {
-                        if (count < out.length) out[count++] = Move.pack(from, to, mover, null, null, Move.FLAG_NORMAL);
-                        else return out.length;
-                    }
-                }
-            }
-            return count;
+            count = addPawnMoves(board, capWest, westOffset, mover, Move.FLAG_NORMAL, false, false, out, count);
+            return addPawnMoves(board, capEast, eastOffset, mover, Move.FLAG_NORMAL, false, false, out, count);
         }
 
-        // -------------------------
-        // NORMAL MOVE GEN
-        // -------------------------
+        long empty = ~board.getAllPieces();
+        long enemy = (isWhite ? board.getAllBlackPieces() : board.getAllWhitePieces()) & allowed;
+        long promoRank = isWhite ? Masks.RANK_8 : Masks.RANK_1;
+        int pushOffset = isWhite ? 8 : -8;
+
+        long single = (isWhite ? pawns << 8 : pawns >>> 8) & empty;
+        // double pushes come from single pushes that landed on the third rank
+        long doubles = isWhite ? ((single & Masks.RANK_3) << 8) & empty : ((single & Masks.RANK_6) >>> 8) & empty;
+        single &= allowed;
+        doubles &= allowed;
+        capWest &= enemy;
+        capEast &= enemy;
+
+        // captures and promotions are the tactical kind; plain pushes are quiet
+        if ((kinds & GEN_CAPTURES) == 0) {
+            capWest = 0L;
+            capEast = 0L;
+            single &= ~promoRank;
+        }
+        if ((kinds & GEN_QUIETS) == 0) {
+            single &= promoRank;
+            doubles = 0L;
+        }
 
-        // One step forward
-        int fwd = from + 8 * dir;
-        if (fwd >= 0 && fwd < 64 && ((occupied >>> fwd) & 1L) == 0) {
-            if (promotionRank) {
-                count = addPawnPromotions(from, fwd, mover, null, Move.FLAG_PAWN_PUSH, out, count);
-                if (count >= out.length) return out.length;
-            } else {
-                if (count < out.length) out[count++] = Move.pack(from, fwd, mover, null, null, Move.FLAG_PAWN_PUSH);
-                else return out.length;
-            }
+        // promotions first, they are the most forcing
+        count = addPawnMoves(board, single & promoRank, pushOffset, mover, Move.FLAG_PAWN_PUSH, false, true, out, count);
+        count = addPawnMoves(board, capWest & promoRank, westOffset, mover, Move.FLAG_NORMAL, true, true, out, count);
+        count = addPawnMoves(board, capEast & promoRank, eastOffset, mover, Move.FLAG_NORMAL, true, true, out, count);
 
-            // Two steps forward (only if one step was clear)
-            boolean onStartRank = (isWhite && rank == 1) || (!isWhite && rank == 6);
-            if (onStartRank) {
-                int fwd2 = from + 16 * dir;
-                if (fwd2 >= 0 && fwd2 < 64 && ((occupied >>> fwd2) & 1L) == 0) {
-                    if (count < out.length) out[count++] = Move.pack(from, fwd2, mover, null, null, Move.FLAG_PAWN_PUSH);
-                    else return out.length;
-                }
-            }
-        }
+        count = addPawnMoves(board, capWest & ~promoRank, westOffset, mover, Move.FLAG_NORMAL, true, false, out, count);
+        count = addPawnMoves(board, capEast & ~promoRank, eastOffset, mover, Move.FLAG_NORMAL, true, false, out, count);
+        count = addPawnMoves(board, single & ~promoRank, pushOffset, mover, Move.FLAG_PAWN_PUSH, false, false, out, count);
+        count = addPawnMoves(board, doubles, 2 * pushOffset, mover, Move.FLAG_PAWN_PUSH, false, false, out, count);
 
-        // Captures
-        if (isWhite) {
-            // NW: +7
-            if (file > 0) {
-                int to = from + 7;
-                if (to >= 0 && to < 64 && ((enemyBB >>> to) & 1L) != 0) {
-                    Piece cap = board.getPieceAtSquare(to);
-                    if (promotionRank) {
-                        count = addPawnPromotions(from, to, mover, cap, Move.FLAG_NORMAL, out, count);
-                        if (count >= out.length) return out.length;
-                    } else {
-                        if (count < out.length) out[count++] = Move.pack(from, to, mover, cap, null, Move.FLAG_NORMAL);
-                        else return out.length;
-                    }
-                }
-            }
-            // NE: +9
-            if (file < 7) {
-                int to = from + 9;
-                if (to >= 0 && to < 64 && ((enemyBB >>> to) & 1L) != 0) {
-                    Piece cap = board.getPieceAtSquare(to);
-                    if (promotionRank) {
-                        count = addPawnPromotions(from, to, mover, cap, Move.FLAG_NORMAL, out, count);
-                        if (count >= out.length) return out.length;
-                    } else {
-                        if (count < out.length) out[count++] = Move.pack(from, to, mover, cap, null, Move.FLAG_NORMAL);
-                        else return out.length;
-                    }
-                }
-            }
-        } else {
-            // SW: -9
-            if (file > 0) {
-                int to = from - 9;
-                if (to >= 0 && to < 64 && ((enemyBB >>> to) & 1L) != 0) {
-                    Piece cap = board.getPieceAtSquare(to);
-                    if (promotionRank) {
-                        count = addPawnPromotions(from, to, mover, cap, Move.FLAG_NORMAL, out, count);
-                        if (count >= out.length) return out.length;
-                    } else {
-                        if (count < out.length) out[count++] = Move.pack(from, to, mover, cap, null, Move.FLAG_NORMAL);
-                        else return out.length;
-                    }
-                }
-            }
-            // SE: -7
-            if (file < 7) {
-                int to = from - 7;
-                if (to >= 0 && to < 64 && ((enemyBB >>> to) & 1L) != 0) {
-                    Piece cap = board.getPieceAtSquare(to);
-                    if (promotionRank) {
-                        count = addPawnPromotions(from, to, mover, cap, Move.FLAG_NORMAL, out, count);
-                        if (count >= out.length) return out.length;
-                    } else {
-                        if (count < out.length) out[count++] = Move.pack(from, to, mover, cap, null, Move.FLAG_NORMAL);
-                        else return out.length;
-                    }
-                }
+        // En passant (pseudo-legal; the legal generator handles it separately)
+        int ep = board.getEnPassantSquare();
+        if (includeEnPassant && (kinds & GEN_CAPTURES) != 0 && ep != -1) {
+            // our pawns attacking ep = squares an enemy pawn on ep would attack
+            long attackers = Attacks.pawn(ep, !isWhite) & pawns;
+            while (attackers != 0) {
+                int from = Long.numberOfTrailingZeros(attackers);
+                attackers &= attackers - 1;
+
+                if (count < out.length) out[count++] = Move.pack(from, ep, mover, null, null, Move.FLAG_EN_PASSANT);
+                else return out.length;
             }
         }
 
-        // En passant
-        int ep = board.getEnPassantSquare();
-        if (ep != -1) {
-            if (isWhite) {
-                if (file > 0 && from + 7 == ep) {
-                    if (count < out.length) out[count++] = Move.pack(from, ep, mover, null, null, Move.FLAG_EN_PASSANT);
-                    else return out.length;
-                }
-                if (file < 7 && from + 9 == ep) {
-                    if (count < out.length) out[count++] = Move.pack(from, ep, mover, null, null, Move.FLAG_EN_PASSANT);
-                    else return out.length;
-                }
+        return count;
+    }
+
+    private static int addPawnMoves(Board board, long targets, int offset, Piece pawn, int flags, boolean capture, boolean promote, int[] out, int count) {
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+
+            int from = to - offset;
+            Piece cap = capture ? board.getPieceAtSquare(to) : null;
+
+            if (promote) {
+                count = addPawnPromotions(from, to, pawn, cap, flags, out, count);
+                if (count >= out.length) return out.length;
             } else {
-                if (file > 0 && from - 9 == ep) {
-                    if (count < out.length) out[count++] = Move.pack(from, ep, mover, null, null, Move.FLAG_EN_PASSANT);
-                    else return out.length;
-                }
-                if (file < 7 && from - 7 == ep) {
-                    if (count < out.length) out[count++] = Move.pack(from, ep, mover, null, null, Move.FLAG_EN_PASSANT);
-                    else return out.length;
-                }
+                if (count < out.length) out[count++] = Move.pack(from, to, pawn, cap, null, flags);
+                else return out.length;
             }
         }
-
         return count;
     }
 
+    private static final Piece[] WHITE_PROMOS = {Piece.WQ, Piece.WR, Piece.WB, Piece.WN};
+    private static final Piece[] BLACK_PROMOS = {Piece.BQ, Piece.BR, Piece.BB, Piece.BN};
+
     private static int addPawnPromotions(int from, int to, Piece pawn, Piece capture, int flags, int[] out, int count) {
-        Piece[] promos = pawn.isWhite()
-                ? new Piece[]{Piece.WQ, Piece.WR, Piece.WB, Piece.WN}
-                : new Piece[]{Piece.BQ, Piece.BR, Piece.BB, Piece.BN};
+        Piece[] promos = pawn.isWhite() ? WHITE_PROMOS : BLACK_PROMOS;
 
         for (Piece promo : promos) {
             if (count < out.length) {
@@ -414,15 +595,11 @@ public final class MoveGen {
         return count;
     }
 
-    private static int genBishops(Board board, int from, boolean isWhite, Masks masks, int[] out, int count) {
-        long own   = isWhite ? board.getAllWhitePieces() : board.getAllBlackPieces();
+    private static int genBishops(Board board, int from, boolean isWhite, long allowed, int[] out, int count) {
         long enemy = isWhite ? board.getAllBlackPieces() : board.getAllWhitePieces();
         long occ   = board.getAllPieces();
 
-        long mask   = BishopMoveMasks.bishopBlockerMask(from);
-        long subset = occ & mask;
-
-        long targets = masks.getBishopMoves(from, subset) & ~own;
+        long targets = Attacks.bishop(from, occ) & allowed;
         Piece mover  = isWhite ? Piece.WB : Piece.BB;
 
         while (targets != 0) {
@@ -441,15 +618,11 @@ public final class MoveGen {
         return count;
     }
 
-    private static int genRooks(Board board, int from, boolean isWhite, Masks masks, int[] out, int count) {
-        long own   = isWhite ? board.getAllWhitePieces() : board.getAllBlackPieces();
+    private static int genRooks(Board board, int from, boolean isWhite, long allowed, int[] out, int count) {
         long enemy = isWhite ? board.getAllBlackPieces() : board.getAllWhitePieces();
         long occ   = board.getAllPieces();
 
-        long mask   = RookMoveMasks.rookBlockerMask(from);
-        long subset = occ & mask;
-
-        long targets = masks.getRookMoves(from, subset) & ~own;
+        long targets = Attacks.rook(from, occ) & allowed;
         Piece mover  = isWhite ? Piece.WR : Piece.BR;
 
         while (targets != 0) {
@@ -468,18 +641,11 @@ public final class MoveGen {
         return count;
     }
 
-    private static int genQueens(Board board, int from, boolean isWhite, Masks masks, int[] out, int count) {
-        long own   = isWhite ? board.getAllWhitePieces() : board.getAllBlackPieces();
+    private static int genQueens(Board board, int from, boolean isWhite, long allowed, int[] out, int count) {
         long enemy = isWhite ? board.getAllBlackPieces() : board.getAllWhitePieces();
         long occ   = board.getAllPieces();
 
-        long bMask = BishopMoveMasks.bishopBlockerMask(from);
-        long rMask = RookMoveMasks.rookBlockerMask(from);
-
-        long bSubset = occ & bMask;
-        long rSubset = occ & rMask;
-
-        long targets = (masks.getBishopMoves(from, bSubset) | masks.getRookMoves(from, rSubset)) & ~own;
+        long targets = Attacks.queen(from, occ) & allowed;
         Piece mover  = isWhite ? Piece.WQ : Piece.BQ;
 
         while (targets != 0) {
@@ -1,6 +1,105 @@
 package org.quinnton.chess.core;
 
+/**
+ * Preallocated move stack indexed by ply. Every ply owns a fixed slot of
+ * Board.MAX_MOVES packed int moves plus a parallel score array, so perft and
+ * the search can generate at every node without allocating.
+ *
+ * Not thread-safe: give each searching thread its own MoveList.
+ */
+public final class MoveList {
 
-import java.util.ArrayList;
-public final class MoveList extends ArrayList<Move> {}
+    public static final int DEFAULT_PLIES = 128;
 
+    private final int[][] moves;
+    private final int[][] scores;
+    private final int[] size;
+
+    public MoveList() {
+        this(DEFAULT_PLIES);
+    }
+
+    public MoveList(int plies) {
+        this.moves = new int[plies][Board.MAX_MOVES];
+        this.scores = new int[plies][Board.MAX_MOVES];
+        this.size = new int[plies];
+    }
+
+    public int plies() {
+        return size.length;
+    }
+
+    // ------------------------------------------------------------
+    // Raw slot access (generators write straight into these)
+    // ------------------------------------------------------------
+    public int[] moves(int ply) {
+        return moves[ply];
+    }
+
+    public int[] scores(int ply) {
+        return scores[ply];
+    }
+
+    public int size(int ply) {
+        return size[ply];
+    }
+
+    public void setSize(int ply, int count) {
+        size[ply] = count;
+    }
+
+    public void clear(int ply) {
+        size[ply] = 0;
+    }
+
+    public int get(int ply, int i) {
+        return moves[ply][i];
+    }
+
+    public void add(int ply, int m) {
+        moves[ply][size[ply]++] = m;
+    }
+
+    // ------------------------------------------------------------
+    // Generation
+    // ------------------------------------------------------------
+
+    /** Fills the ply's slot with every legal move; returns the count. */
+    public int generateLegal(Board board, int ply) {
+        return size[ply] = MoveGen.generateLegalMovesFlat(board, board.masks, moves[ply]);
+    }
+
+    // ------------------------------------------------------------
+    // Ordering
+    // ------------------------------------------------------------
+
+    /** Swaps move i and j together with their scores. */
+    public void swap(int ply, int i, int j) {
+        int[] m = moves[ply];
+        int[] s = scores[ply];
+
+        int tm = m[i];
+        m[i] = m[j];
+        m[j] = tm;
+
+        int ts = s[i];
+        s[i] = s[j];
+        s[j] = ts;
+    }
+
+    /**
+     * Selection step: moves the highest scored move in [from, size) to
+     * index from and returns it. Cheaper than sorting when a cutoff is likely.
+     */
+    public int pickBest(int ply, int from) {
+        int[] s = scores[ply];
+        int n = size[ply];
+
+        int best = from;
+        for (int i = from + 1; i < n; i++) {
+            if (s[i] > s[best]) best = i;
+        }
+        if (best != from) swap(ply, from, best);
+        return moves[ply][from];
+    }
+}
@@ -0,0 +1,63 @@
+package org.quinnton.chess.core;
+
+/**
+ * Bit-extract backend: index = Long.compress(occ, mask).
+ * The JIT turns Long.compress into PEXT on x86 with BMI2, so no magic
+ * numbers are needed and the tables are packed with no empty slots.
+ */
+public final class PextAttacks implements SliderAttacks {
+
+    private static final long[] ROOK_MASK = new long[64];
+    private static final long[] BISHOP_MASK = new long[64];
+    private static final int[] ROOK_OFFSET = new int[64];
+    private static final int[] BISHOP_OFFSET = new int[64];
+
+    // all squares share one flat table per piece type
+    private static final long[] ROOK_TABLE;
+    private static final long[] BISHOP_TABLE;
+
+    static {
+        int rookSize = 0;
+        int bishopSize = 0;
+        for (int sq = 0; sq < 64; sq++) {
+            ROOK_MASK[sq] = RookMoveMasks.rookBlockerMask(sq);
+            BISHOP_MASK[sq] = BishopMoveMasks.bishopBlockerMask(sq);
+
+            ROOK_OFFSET[sq] = rookSize;
+            BISHOP_OFFSET[sq] = bishopSize;
+            rookSize += 1 << Long.bitCount(ROOK_MASK[sq]);
+            bishopSize += 1 << Long.bitCount(BISHOP_MASK[sq]);
+        }
+
+        ROOK_TABLE = new long[rookSize];
+        BISHOP_TABLE = new long[bishopSize];
+
+        for (int sq = 0; sq < 64; sq++) {
+            fill(ROOK_TABLE, ROOK_OFFSET[sq], ROOK_MASK[sq], sq, true);
+            fill(BISHOP_TABLE, BISHOP_OFFSET[sq], BISHOP_MASK[sq], sq, false);
+        }
+    }
+
+    private static void fill(long[] table, int offset, long mask, int sq, boolean rook) {
+        long[] occupancies = SliderTables.subsets(mask);
+        long[] reference = SliderTables.referenceAttacks(sq, rook, occupancies);
+        for (int i = 0; i < occupancies.length; i++) {
+            table[offset + (int) Long.compress(occupancies[i], mask)] = reference[i];
+        }
+    }
+
+    @Override
+    public long rookAttacks(int sq, long occupied) {
+        return ROOK_TABLE[ROOK_OFFSET[sq] + (int) Long.compress(occupied, ROOK_MASK[sq])];
+    }
+
+    @Override
+    public long bishopAttacks(int sq, long occupied) {
+        return BISHOP_TABLE[BISHOP_OFFSET[sq] + (int) Long.compress(occupied, BISHOP_MASK[sq])];
+    }
+
+    @Override
+    public String name() {
+        return "pext";
+    }
+}
@@ -1,37 +1,7 @@
 package org.quinnton.chess.core;
 
-import java.util.HashMap;
-
 public class RookMoveMasks {
 
-    // Build lookup table
-    public static HashMap<PositionBitboard, Long> generateRookLookupTable() {
-        HashMap<PositionBitboard, Long> table = new HashMap<>();
-
-        // create indices
-        for (int sq = 0; sq < 64; sq++) {
-            int rank = sq / 8;
-            int file = sq % 8;
-
-            long curSquareMask = 1L << sq;  // correct per A1=LSB layout
-            long mask = (Masks.RANKS[rank] | Masks.FILES[file]) & ~curSquareMask;
-            mask &= rookBlockerMask(sq);
-
-            Long[] curBlockerMasks  = Utils.generateAllBlockerBitboards(mask);
-
-            for(int i = 0; i < curBlockerMasks.length; i++){
-                long legalMoves = getLegalMoves(sq, curBlockerMasks[i]);
-                PositionBitboard positionBitboard = new PositionBitboard(sq, curBlockerMasks[i]);
-                table.put(positionBitboard, legalMoves);
-            }
-
-        }
-
-        System.out.println("Rook table size: " + table.size());
-        return table;
-    }
-
-
     public static long getLegalMoves(int startSquare, long bitboard) {
         long moves = 0L;
         int rank = startSquare / 8;
@@ -7,6 +7,9 @@ import java.util.Set;
 
 public class SelectionController {
 
+    // thinking time per bot move; iterative deepening returns the deepest finished search
+    private static final long BOT_THINK_MILLIS = 2000;
+
     private final Board board;
     private final BoardView view;
     private final Bot bot;
@@ -34,7 +37,7 @@ public class SelectionController {
 
         new Thread(() -> {
             Board searchBoard = board.copy();
-            int best = bot.findBestMove(searchBoard, 5); // now returns encoded int
+            int best = bot.findBestMoveTimed(searchBoard, BOT_THINK_MILLIS); // encoded int
             if (best == 0) return;
 
             javafx.application.Platform.runLater(() -> {
@@ -0,0 +1,31 @@
+package org.quinnton.chess.core;
+
+/**
+ * Slider attack backend. Both implementations take the full board occupancy
+ * and return the attack set including the first blocker in each direction.
+ *
+ * Pick one with -Dchess.sliders=magic|pext (default magic).
+ */
+public interface SliderAttacks {
+
+    String PROPERTY = "chess.sliders";
+
+    long rookAttacks(int sq, long occupied);
+
+    long bishopAttacks(int sq, long occupied);
+
+    default long queenAttacks(int sq, long occupied) {
+        return rookAttacks(sq, occupied) | bishopAttacks(sq, occupied);
+    }
+
+    String name();
+
+    static SliderAttacks fromProperty() {
+        String backend = System.getProperty(PROPERTY, "magic");
+        return switch (backend) {
+            case "magic" -> new MagicAttacks();
+            case "pext" -> new PextAttacks();
+            default -> throw new IllegalArgumentException("Unknown " + PROPERTY + " backend: " + backend);
+        };
+    }
+}
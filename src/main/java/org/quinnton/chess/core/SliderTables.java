@@ -0,0 +1,33 @@
+package org.quinnton.chess.core;
+
+/**
+ * Table-building helpers shared by both slider backends (and MagicGenerator).
+ * Kept out of Magics so the pext backend never triggers its static
+ * initializer, which loads and verifies the magic tables.
+ */
+final class SliderTables {
+
+    private SliderTables() {}
+
+    /** Every blocker subset of the mask, enumerated with the carry-rippler trick. */
+    static long[] subsets(long mask) {
+        long[] out = new long[1 << Long.bitCount(mask)];
+        long sub = 0L;
+        for (int i = 0; i < out.length; i++) {
+            out[i] = sub;
+            sub = (sub - mask) & mask;
+        }
+        return out;
+    }
+
+    /** Reference attacks for each subset, from the slow ray walkers. */
+    static long[] referenceAttacks(int sq, boolean rook, long[] occupancies) {
+        long[] out = new long[occupancies.length];
+        for (int i = 0; i < occupancies.length; i++) {
+            out[i] = rook
+                    ? RookMoveMasks.getLegalMoves(sq, occupancies[i])
+                    : BishopMoveMasks.getBishopMoves(sq, occupancies[i]);
+        }
+        return out;
+    }
+}
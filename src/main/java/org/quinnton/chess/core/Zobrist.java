@@ -0,0 +1,77 @@
+package org.quinnton.chess.core;
+
+import java.util.Random;
+
+/**
+ * Zobrist keys for 64-bit position hashing.
+ * key = XOR of piece-square keys ^ side (black to move) ^ castling ^ en-passant file.
+ *
+ * Board keeps the key incrementally; compute() is the from-scratch reference
+ * used by loadFen and by the debug check.
+ */
+public final class Zobrist {
+
+    // [Piece.ordinal()][square]
+    public static final long[][] PIECE_SQUARE = new long[Piece.values().length][64];
+    public static final long SIDE;
+    // indexed by the 4-bit castling rights (see castlingRights)
+    public static final long[] CASTLING = new long[16];
+    public static final long[] EP_FILE = new long[8];
+
+    // fixed seed so keys (and anything hashed with them) are the same every run
+    private static final long SEED = 0x2B0B_15CA_11EDL;
+
+    static {
+        Random rng = new Random(SEED);
+        for (long[] squares : PIECE_SQUARE) {
+            for (int sq = 0; sq < 64; sq++) squares[sq] = rng.nextLong();
+        }
+        SIDE = rng.nextLong();
+        for (int i = 0; i < CASTLING.length; i++) CASTLING[i] = rng.nextLong();
+        for (int i = 0; i < EP_FILE.length; i++) EP_FILE[i] = rng.nextLong();
+    }
+
+    private Zobrist() {}
+
+    public static long piece(Piece p, int sq) {
+        return PIECE_SQUARE[p.ordinal()][sq];
+    }
+
+    /**
+     * Board stores "has moved" flags (see Board.packCastleFlags); several flag
+     * combinations mean the same rights, so they are folded to 4 bits first:
+     * bit 0 white O-O, 1 white O-O-O, 2 black O-O, 3 black O-O-O.
+     */
+    public static int castlingRights(int packedFlags) {
+        boolean wk = (packedFlags & 1) == 0;
+        boolean bk = (packedFlags & 2) == 0;
+
+        int rights = 0;
+        if (wk && (packedFlags & 4) == 0)  rights |= 1;
+        if (wk && (packedFlags & 8) == 0)  rights |= 2;
+        if (bk && (packedFlags & 16) == 0) rights |= 4;
+        if (bk && (packedFlags & 32) == 0) rights |= 8;
+        return rights;
+    }
+
+    /** Castling + en-passant part of the key. */
+    public static long state(int enPassantSquare, int packedCastleFlags) {
+        long key = CASTLING[castlingRights(packedCastleFlags)];
+        if (enPassantSquare >= 0) key ^= EP_FILE[enPassantSquare & 7];
+        return key;
+    }
+
+    /** Full recompute from the board. */
+    public static long compute(Board board) {
+        long key = 0L;
+        for (Piece p : Piece.values()) {
+            long bb = board.getBitboard(p);
+            while (bb != 0) {
+                key ^= piece(p, Long.numberOfTrailingZeros(bb));
+                bb &= bb - 1;
+            }
+        }
+        if (!board.getTurnCounter()) key ^= SIDE;
+        return key ^ state(board.getEnPassantSquare(), board.packCastleFlags());
+    }
+}
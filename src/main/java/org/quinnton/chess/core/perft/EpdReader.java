@@ -0,0 +1,117 @@
+package org.quinnton.chess.core.perft;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reader for perft suites in the usual .epd layout, one position per line:
+ *
+ *   # comment
+ *   <fen> ;D1 20 ;D2 400 ;D3 8902
+ *
+ * Depths must run from D1 without gaps. An optional ;id "name" field names
+ * the position; otherwise it is named after its line number. Other fields
+ * are ignored. Lines are parsed one at a time, so a large file is never
+ * held in memory unless it is collected with readAll or load.
+ */
+public final class EpdReader {
+
+    /** The suite shipped as a resource: startpos, Kiwipete and positions 3 to 6. */
+    public static final String STANDARD_RESOURCE = "/perft/standard.epd";
+
+    private EpdReader() {}
+
+    /** Streams every position of the file to the consumer, in file order. */
+    public static void read(InputStream in, Consumer<PerftPosition> out) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+
+        int lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            out.accept(parse(line, lineNumber));
+        }
+    }
+
+    public static List<PerftPosition> readAll(InputStream in) throws IOException {
+        List<PerftPosition> positions = new ArrayList<>();
+        read(in, positions::add);
+        return positions;
+    }
+
+    /**
+     * Streams a file path, or a classpath resource when it is not a file,
+     * to the consumer one position at a time.
+     */
+    public static void read(String source, Consumer<PerftPosition> out) {
+        try {
+            Path path = Path.of(source);
+            if (Files.isRegularFile(path)) {
+                try (InputStream in = Files.newInputStream(path)) {
+                    read(in, out);
+                }
+                return;
+            }
+            try (InputStream in = EpdReader.class.getResourceAsStream(source)) {
+                if (in == null) throw new IllegalArgumentException("No EPD file or resource: " + source);
+                read(in, out);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + source, e);
+        }
+    }
+
+    /** The whole file (see read(String, Consumer)) as a list. */
+    public static List<PerftPosition> load(String source) {
+        List<PerftPosition> positions = new ArrayList<>();
+        read(source, positions::add);
+        return positions;
+    }
+
+    /** Parses one "<fen> ;D1 n ;D2 n ..." line. */
+    static PerftPosition parse(String line, int lineNumber) {
+        String[] fields = line.split(";");
+        String fen = fields[0].trim();
+        String name = "line " + lineNumber;
+
+        long[] counts = new long[fields.length];
+        int maxDepth = 0;
+
+        for (int i = 1; i < fields.length; i++) {
+            String field = fields[i].trim();
+            if (field.isEmpty()) continue;
+
+            String[] parts = field.split("\\s+", 2);
+            if (parts[0].equals("id") && parts.length == 2) {
+                name = parts[1].replace("\"", "").trim();
+            } else if (parts[0].length() > 1 && parts[0].charAt(0) == 'D' && parts.length == 2) {
+                int depth = Integer.parseInt(parts[0].substring(1));
+                if (depth != maxDepth + 1) {
+                    throw new IllegalArgumentException("Depths out of order on line " + lineNumber + ": " + line);
+                }
+                counts[depth] = Long.parseLong(parts[1].trim());
+                maxDepth = depth;
+            }
+        }
+
+        if (fen.isEmpty() || maxDepth == 0) {
+            throw new IllegalArgumentException("Bad EPD line " + lineNumber + ": " + line);
+        }
+
+        long[] expected = new long[maxDepth + 1];
+        expected[0] = 1L;
+        System.arraycopy(counts, 1, expected, 1, maxDepth);
+        return new PerftPosition(name, fen, expected);
+    }
+}
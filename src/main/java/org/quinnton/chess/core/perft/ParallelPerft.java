@@ -0,0 +1,195 @@
+package org.quinnton.chess.core.perft;
+
+import org.quinnton.chess.core.Board;
+import org.quinnton.chess.core.Masks;
+import org.quinnton.chess.core.Move;
+import org.quinnton.chess.core.MoveList;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Perft split across a ForkJoinPool. Work is cut at the root, or one ply
+ * deeper when the root has too few moves to keep every thread busy. Each
+ * worker thread has one Board.copy() and MoveList; a unit makes its moves
+ * on it, runs the serial Perft recursion and unmakes them, so the counts
+ * are exactly Perft's.
+ */
+public final class ParallelPerft {
+
+    // a root with fewer than threads * SPLIT_FACTOR moves is split one ply deeper
+    private static final int SPLIT_FACTOR = 4;
+
+    private ParallelPerft() {}
+
+    public static int defaultThreads() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    /** Leaf count at depth, on all cores. */
+    public static long perft(Board board, Masks masks, int depth) {
+        return perft(board, masks, depth, defaultThreads());
+    }
+
+    public static long perft(Board board, Masks masks, int depth, int threads) {
+        if (depth <= 1) return Perft.perft(board, masks, depth);
+
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, threads));
+        try {
+            return divide(board, depth, pool, false).total();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /** Parallel perftRoot: same per-move output, plus wall time and NPS. */
+    public static long perftRoot(Board board, Masks masks, int depth) {
+        return perftRoot(board, masks, depth, defaultThreads());
+    }
+
+    public static long perftRoot(Board board, Masks masks, int depth, int threads) {
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, threads));
+        Divide d;
+        try {
+            d = divide(board, Math.max(depth, 1), pool, false);
+        } finally {
+            pool.shutdown();
+        }
+        long ms = (System.nanoTime() - start) / 1_000_000L;
+
+        long total = 0;
+        long totalCastling = 0;
+
+        for (int i = 0; i < d.moves.length; i++) {
+            int m = d.moves[i];
+            long count = d.counts[i];
+
+            System.out.printf("%s: %d%n", Move.toUci(m), count);
+            total += count;
+
+            int f = Move.flags(m);
+            if (f == Move.FLAG_CASTLE_QS || f == Move.FLAG_CASTLE_KS) {
+                totalCastling += count;
+            }
+        }
+
+        System.out.println("Total castling is: " + totalCastling);
+        System.out.printf("Total nodes at depth %d: %d%n", depth, total);
+
+        double nps = ms > 0 ? (total * 1000.0) / ms : total;
+        System.out.printf("Parallel perft threads=%d units=%d time=%dms nps=%.0f%n", threads, d.units, ms, nps);
+        return total;
+    }
+
+    // ------------------------------------------------------------
+    // Work splitting
+    // ------------------------------------------------------------
+
+    /** Root moves (generation order) and the leaf count below each. */
+    static final class Divide {
+        final int[] moves;
+        final long[] counts;
+        int units;
+
+        Divide(int[] moves) {
+            this.moves = moves;
+            this.counts = new long[moves.length];
+        }
+
+        long total() {
+            long total = 0;
+            for (long count : counts) total += count;
+            return total;
+        }
+    }
+
+    /** A worker's own board (kept at the root position between units) and move stack. */
+    private static final class Worker {
+        final Board board;
+        final MoveList list;
+
+        Worker(Board root, int depth) {
+            this.board = root.copy();
+            this.list = new MoveList(depth + 1);
+        }
+    }
+
+    /**
+     * Splits the perft of board over the pool and waits for it. May be called
+     * from a task of the same pool (PerftSuite does): joining helps run the
+     * units. bulk selects Perft.perftBulk's counting for the units.
+     */
+    static Divide divide(Board board, int depth, ForkJoinPool pool, boolean bulk) {
+        MoveList rootList = new MoveList(2);
+        int rootCount = rootList.generateLegal(board, 0);
+        int[] rootMoves = new int[rootCount];
+        System.arraycopy(rootList.moves(0), 0, rootMoves, 0, rootCount);
+
+        Divide d = new Divide(rootMoves);
+        boolean deeper = depth >= 3 && rootCount < pool.getParallelism() * SPLIT_FACTOR;
+
+        // units as (root move index, reply or 0); all generated before any
+        // worker starts copying the board
+        List<Integer> owners = new ArrayList<>();
+        List<Integer> replies = new ArrayList<>();
+        for (int i = 0; i < rootCount; i++) {
+            if (!deeper) {
+                owners.add(i);
+                replies.add(0);
+                continue;
+            }
+
+            board.makeMoveInternal(rootMoves[i]);
+            int childCount = rootList.generateLegal(board, 1);
+            int[] childMoves = rootList.moves(1);
+            for (int j = 0; j < childCount; j++) {
+                owners.add(i);
+                replies.add(childMoves[j]);
+            }
+            board.unmakeMoveInternal(rootMoves[i]);
+        }
+
+        // one board copy per thread that runs units: a unit makes its moves, counts
+        // and unmakes them. Held by this call only, so the copies go with it.
+        Map<Thread, Worker> workers = new ConcurrentHashMap<>();
+
+        List<ForkJoinTask<Long>> tasks = new ArrayList<>(owners.size());
+
+        for (int t = 0; t < owners.size(); t++) {
+            int rootMove = rootMoves[owners.get(t)];
+            int reply = replies.get(t);
+
+            tasks.add(pool.submit(() -> {
+                Worker w = workers.computeIfAbsent(Thread.currentThread(), thread -> new Worker(board, depth));
+                w.board.makeMoveInternal(rootMove);
+                long count;
+                if (reply == 0) {
+                    count = count(w, 1, depth - 1, bulk);
+                } else {
+                    w.board.makeMoveInternal(reply);
+                    count = count(w, 2, depth - 2, bulk);
+                    w.board.unmakeMoveInternal(reply);
+                }
+                w.board.unmakeMoveInternal(rootMove);
+                return count;
+            }));
+        }
+
+        for (int t = 0; t < tasks.size(); t++) {
+            d.counts[owners.get(t)] += tasks.get(t).join();
+        }
+        d.units = tasks.size();
+
+        return d;
+    }
+
+    private static long count(Worker w, int ply, int depth, boolean bulk) {
+        if (depth == 0) return 1;
+        return bulk ? Perft.perftBulk(w.board, w.list, ply, depth) : Perft.perft(w.board, w.list, ply, depth);
+    }
+}
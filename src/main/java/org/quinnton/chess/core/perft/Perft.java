@@ -1,14 +1,14 @@
 package org.quinnton.chess.core.perft;
 
+import org.quinnton.chess.core.Attacks;
 import org.quinnton.chess.core.Board;
 import org.quinnton.chess.core.Move;
-import org.quinnton.chess.core.MoveGen;
+import org.quinnton.chess.core.MoveList;
 import org.quinnton.chess.core.Masks;
+import org.quinnton.chess.core.Piece;
 
 public final class Perft {
 
-    private static final int MAX_MOVES = 256;
-
     private Perft() {}
 
     /**
@@ -16,30 +16,160 @@ public final class Perft {
      * counts the number of leaf nodes at a given depth.
      */
     public static long perft(Board board, Masks masks, int depth) {
+        return perft(board, new MoveList(depth + 1), 0, depth);
+    }
+
+    /** Recursive body: each ply generates into its own MoveList slot, no allocation. */
+    static long perft(Board board, MoveList list, int ply, int depth) {
+        if (depth == 0) return 1;
+
+        int moveCount = list.generateLegal(board, ply);
+        int[] moves = list.moves(ply);
+
+        long nodes = 0;
+        for (int i = 0; i < moveCount; i++) {
+            int m = moves[i];
+
+            board.makeMoveInternal(m);
+            nodes += perft(board, list, ply + 1, depth - 1);
+            board.unmakeMoveInternal(m);
+        }
+
+        return nodes;
+    }
+
+    /**
+     * Bulk-counting perft: one ply above the leaves the legal move count is
+     * the answer, so the last ply is never made and unmade. Same result as
+     * perft; kept as a separate recursion so both can be checked against
+     * each other.
+     */
+    public static long perftBulk(Board board, Masks masks, int depth) {
+        if (depth == 0) return 1;
+        return perftBulk(board, new MoveList(depth), 0, depth);
+    }
+
+    /** Recursive body of perftBulk; depth must be at least 1. */
+    static long perftBulk(Board board, MoveList list, int ply, int depth) {
+        int moveCount = list.generateLegal(board, ply);
+        if (depth == 1) return moveCount;
+
+        int[] moves = list.moves(ply);
+
+        long nodes = 0;
+        for (int i = 0; i < moveCount; i++) {
+            int m = moves[i];
+
+            board.makeMoveInternal(m);
+            nodes += perftBulk(board, list, ply + 1, depth - 1);
+            board.unmakeMoveInternal(m);
+        }
+
+        return nodes;
+    }
+
+    /**
+     * Perft with subtree counts cached in hash (null = plain perft).
+     * A separate recursion, so the plain one stays free of hash lookups.
+     */
+    public static long perft(Board board, Masks masks, int depth, PerftHash hash) {
+        if (hash == null) return perft(board, masks, depth);
+        return perftHashed(board, new MoveList(depth + 1), 0, depth, hash);
+    }
+
+    private static long perftHashed(Board board, MoveList list, int ply, int depth, PerftHash hash) {
         if (depth == 0) return 1;
+        if (depth == 1) return list.generateLegal(board, ply); // bulk count, as perftBulk
+
+        long key = board.getZobristKey();
+        long cached = hash.probe(key, depth);
+        if (cached >= 0) {
+            if (!hash.isVerifying()) return cached;
+            long actual = perft(board, list, ply, depth);
+            hash.recordVerify(cached, actual);
+            return actual;
+        }
 
-        int[] moves = new int[MAX_MOVES];
-        int moveCount = MoveGen.generateLegalMovesFlat(board, masks, moves);
+        int moveCount = list.generateLegal(board, ply);
+        int[] moves = list.moves(ply);
 
         long nodes = 0;
         for (int i = 0; i < moveCount; i++) {
             int m = moves[i];
 
             board.makeMoveInternal(m);
-            nodes += perft(board, masks, depth - 1);
+            nodes += perftHashed(board, list, ply + 1, depth - 1, hash);
             board.unmakeMoveInternal(m);
         }
 
+        hash.store(key, depth, nodes);
         return nodes;
     }
 
+    /**
+     * Perft that fills in the full breakdown (captures, e.p., castles,
+     * promotions, checks, mates) for every depth up to depth. Much slower
+     * than perft, which it leaves untouched.
+     */
+    public static PerftStats perftDetailed(Board board, Masks masks, int depth) {
+        PerftStats stats = new PerftStats(depth);
+        if (depth > 0) perftDetailed(board, new MoveList(depth + 1), 0, depth, stats);
+        return stats;
+    }
+
+    private static void perftDetailed(Board board, MoveList list, int ply, int depth, PerftStats stats) {
+        int moveCount = list.generateLegal(board, ply);
+        int[] moves = list.moves(ply);
+        int d = ply + 1; // the depth whose nodes these moves lead to
+
+        for (int i = 0; i < moveCount; i++) {
+            int m = moves[i];
+            boolean white = Move.piece(m).isWhite();
+
+            board.makeMoveInternal(m);
+
+            stats.nodes[d]++;
+            if (Move.isCapture(m)) stats.captures[d]++;
+            if (Move.isEnPassant(m)) stats.enPassant[d]++;
+            if (Move.isCastle(m)) stats.castles[d]++;
+            if (Move.isPromotion(m)) stats.promotions[d]++;
+
+            if (white ? board.blackInCheck : board.whiteInCheck) {
+                countCheck(board, m, white, stats, d);
+                if (list.generateLegal(board, ply + 1) == 0) stats.checkmates[d]++;
+            }
+
+            if (depth > 1) perftDetailed(board, list, ply + 1, depth - 1, stats);
+            board.unmakeMoveInternal(m);
+        }
+    }
+
+    /** Classifies a check just given by m (white = the side that moved). */
+    private static void countCheck(Board board, int m, boolean white, PerftStats stats, int d) {
+        stats.checks[d]++;
+
+        int kingSq = Long.numberOfTrailingZeros(board.getBitboard(white ? Piece.BK : Piece.WK));
+        long ours = white ? board.getAllWhitePieces() : board.getAllBlackPieces();
+        long checkers = Attacks.attackersTo(board, kingSq, board.getAllPieces()) & ours;
+
+        // squares of the pieces that moved: castling moves the rook too
+        int to = Move.to(m);
+        long moved = 1L << to;
+        if (Move.flags(m) == Move.FLAG_CASTLE_KS) moved |= 1L << (to - 1);
+        if (Move.flags(m) == Move.FLAG_CASTLE_QS) moved |= 1L << (to + 1);
+
+        if (Long.bitCount(checkers) > 1) stats.doubleChecks[d]++;
+        else if ((checkers & ~moved) != 0) stats.discoveryChecks[d]++;
+    }
+
     /**
      * Root perft: prints each root move and its subtree count.
      * Good for comparing to perft tables (like perftree output).
      */
     public static long perftRoot(Board board, Masks masks, int depth) {
-        int[] moves = new int[MAX_MOVES];
-        int moveCount = MoveGen.generateLegalMovesFlat(board, masks, moves);
+        MoveList list = new MoveList(Math.max(depth, 1));
+        int moveCount = list.generateLegal(board, 0);
+        int[] moves = list.moves(0);
 
         long total = 0;
         long totalCastling = 0;
@@ -48,7 +178,7 @@ public final class Perft {
             int m = moves[i];
 
             board.makeMoveInternal(m);
-            long count = perft(board, masks, depth - 1);
+            long count = perft(board, list, 1, depth - 1);
             board.unmakeMoveInternal(m);
 
             System.out.printf("%s: %d%n", Move.toUci(m), count);
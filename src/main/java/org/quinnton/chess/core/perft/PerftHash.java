@@ -0,0 +1,138 @@
+package org.quinnton.chess.core.perft;
+
+import java.util.Arrays;
+
+/**
+ * Subtree count cache for perft, keyed by Zobrist key mixed with the
+ * remaining depth. Same layout as the search's transposition table, two longs per entry:
+ *   [i]     key ^ data
+ *   [i + 1] data = count << 8 | depth
+ * so a torn write reads as a miss and the table could be shared by threads.
+ *
+ * With verify on, Perft recounts every hit without the cache and records
+ * any difference, which is how a key collision would show up.
+ */
+public final class PerftHash {
+
+    public static final String PROPERTY = "chess.perftHashMb";
+    public static final String VERIFY_PROPERTY = "chess.perftHashVerify";
+
+    private static final int ENTRY_BYTES = 16;
+
+    private final long[] table;
+    private final int indexMask; // over entries, not longs
+    private final boolean verify;
+
+    // statistics (plain fields: approximate if threads share the table)
+    private long probes;
+    private long hits;
+    private long overwrites;
+    private long verified;
+    private long mismatches;
+
+    public PerftHash(int sizeMb, boolean verify) {
+        long entries = Long.highestOneBit(Math.max(1L, (long) sizeMb * 1024 * 1024 / ENTRY_BYTES));
+        if (entries > (1 << 29)) entries = 1 << 29; // keep 2 * entries within an int array index
+        this.table = new long[(int) entries * 2];
+        this.indexMask = (int) entries - 1;
+        this.verify = verify;
+    }
+
+    /**
+     * Table sized by -Dchess.perftHashMb (verification with
+     * -Dchess.perftHashVerify=true), or null when the property is unset or 0.
+     */
+    public static PerftHash fromProperties() {
+        int mb = Integer.getInteger(PROPERTY, 0);
+        return mb > 0 ? new PerftHash(mb, Boolean.getBoolean(VERIFY_PROPERTY)) : null;
+    }
+
+    public boolean isVerifying() {
+        return verify;
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0L);
+        probes = 0;
+        hits = 0;
+        overwrites = 0;
+        verified = 0;
+        mismatches = 0;
+    }
+
+    // ------------------------------------------------------------
+    // Probe / store
+    // ------------------------------------------------------------
+
+    /** @return the cached count for this position and depth, or -1 on a miss */
+    public long probe(long key, int depth) {
+        probes++;
+        key = withDepth(key, depth);
+        int i = index(key);
+        long data = table[i + 1];
+        if ((table[i] ^ data) != key || data == 0 || (int) (data & 0xFF) != depth) return -1;
+        hits++;
+        return data >>> 8;
+    }
+
+    /** Always replaces: the entry being stored is the most likely to be probed again. */
+    public void store(long key, int depth, long count) {
+        key = withDepth(key, depth);
+        int i = index(key);
+        if (table[i + 1] != 0) overwrites++;
+
+        long data = (count << 8) | (depth & 0xFF);
+        table[i] = key ^ data;
+        table[i + 1] = data;
+    }
+
+    /** Mixes the depth into the key, so one position at two depths lands in different slots. */
+    private static long withDepth(long key, int depth) {
+        return key ^ (depth * 0x9E37_79B9_7F4A_7C15L);
+    }
+
+    private int index(long key) {
+        return ((int) key & indexMask) << 1;
+    }
+
+    /** Called by Perft in verify mode with the cached and the recounted value of a hit. */
+    void recordVerify(long cached, long actual) {
+        verified++;
+        if (cached != actual) mismatches++;
+    }
+
+    // ------------------------------------------------------------
+    // Statistics
+    // ------------------------------------------------------------
+    public long getProbes() {
+        return probes;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getOverwrites() {
+        return overwrites;
+    }
+
+    public long getMismatches() {
+        return mismatches;
+    }
+
+    public double hitRate() {
+        return probes > 0 ? (hits * 100.0) / probes : 0.0;
+    }
+
+    public int sizeMb() {
+        return (int) ((long) table.length * 8 / (1024 * 1024));
+    }
+
+    public void printStats() {
+        System.out.printf(
+                "Perft hash size=%dMB probes=%d hit=%.1f%% overwrites=%d%s%n",
+                sizeMb(), probes, hitRate(), overwrites,
+                verify ? String.format(" verified=%d mismatches=%d", verified, mismatches) : ""
+        );
+    }
+}
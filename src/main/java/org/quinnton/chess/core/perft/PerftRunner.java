@@ -7,9 +7,18 @@ import java.util.List;
 
 public final class PerftRunner {
 
+    // -Dchess.perftStats=true also prints the detailed breakdown per position
+    public static final String STATS_PROPERTY = "chess.perftStats";
+
     private PerftRunner() {}
 
+    /** Uses a perft hash when -Dchess.perftHashMb is set (see PerftHash.fromProperties). */
     public static void runPerftSuite(List<PerftPosition> tests, Masks masks) {
+        runPerftSuite(tests, masks, PerftHash.fromProperties());
+    }
+
+    /** @param hash subtree count cache, or null for plain perft */
+    public static void runPerftSuite(List<PerftPosition> tests, Masks masks, PerftHash hash) {
         Board board = new Board(masks);
 
         for (PerftPosition pos : tests) {
@@ -19,16 +28,29 @@ public final class PerftRunner {
             int maxDepth = pos.expected.length - 1; // assuming index 0 is depth 0
 
             for (int depth = 1; depth <= maxDepth; depth++) {
-                long got = Perft.perft(board, masks, depth);
                 long expected = pos.expected[depth];
 
-                String status = (got == expected) ? "OK" : "MISMATCH";
+                // classic (make/unmake every leaf) and bulk counting, both validated;
+                // the hashed count (which also bulk-counts) is a third, separate column
+                long t0 = System.nanoTime();
+                long got = Perft.perft(board, masks, depth);
+                long t1 = System.nanoTime();
+                long bulk = Perft.perftBulk(board, masks, depth);
+                long t2 = System.nanoTime();
+                long hashed = hash != null ? Perft.perft(board, masks, depth, hash) : expected;
+                long t3 = System.nanoTime();
+
+                String status = (got == expected && bulk == expected && hashed == expected) ? "OK" : "MISMATCH";
                 System.out.printf(
-                        "Depth %d: got=%d, expected=%d -> %s%n",
-                        depth, got, expected, status
+                        "Depth %d: got=%d, bulk=%d, expected=%d -> %s (classic %dms, bulk %dms)%s%n",
+                        depth, got, bulk, expected, status,
+                        (t1 - t0) / 1_000_000L, (t2 - t1) / 1_000_000L,
+                        hash != null ? String.format(" hashed=%d (%dms)", hashed, (t3 - t2) / 1_000_000L) : ""
                 );
             }
 
+            if (hash != null) hash.printStats();
+            if (Boolean.getBoolean(STATS_PROPERTY)) Perft.perftDetailed(board, masks, maxDepth).print();
             System.out.println();
         }
     }
@@ -0,0 +1,50 @@
+package org.quinnton.chess.core.perft;
+
+/**
+ * The standard perft breakdown, per depth: of the nodes at that depth, how
+ * many were reached by a capture, en passant, castle or promotion, and how
+ * many are checks (discovered / double) or checkmates. Index 0 is unused.
+ *
+ * A discovered check is one given by a piece other than the one that moved
+ * (the rook counts as moved when castling). Double checks are counted
+ * only as double, as in the published tables.
+ */
+public final class PerftStats {
+
+    public final long[] nodes;
+    public final long[] captures;
+    public final long[] enPassant;
+    public final long[] castles;
+    public final long[] promotions;
+    public final long[] checks;
+    public final long[] discoveryChecks;
+    public final long[] doubleChecks;
+    public final long[] checkmates;
+
+    public PerftStats(int depth) {
+        int n = depth + 1;
+        nodes = new long[n];
+        captures = new long[n];
+        enPassant = new long[n];
+        castles = new long[n];
+        promotions = new long[n];
+        checks = new long[n];
+        discoveryChecks = new long[n];
+        doubleChecks = new long[n];
+        checkmates = new long[n];
+    }
+
+    public int depth() {
+        return nodes.length - 1;
+    }
+
+    public void print() {
+        System.out.printf("%5s %14s %12s %10s %10s %10s %12s %10s %8s %10s%n",
+                "depth", "nodes", "captures", "e.p.", "castles", "promos", "checks", "disc", "double", "mates");
+        for (int d = 1; d <= depth(); d++) {
+            System.out.printf("%5d %14d %12d %10d %10d %10d %12d %10d %8d %10d%n",
+                    d, nodes[d], captures[d], enPassant[d], castles[d], promotions[d],
+                    checks[d], discoveryChecks[d], doubleChecks[d], checkmates[d]);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package org.quinnton.chess.core.perft;
+
+import org.quinnton.chess.core.Board;
+import org.quinnton.chess.core.Masks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+
+/**
+ * Move generation regression gate: streams an EPD perft suite into a
+ * ForkJoinPool as it is read, prints the results in file order with
+ * aggregate NPS, and exits 0 only if every count matches.
+ *
+ * Usage: PerftSuite [epd file or resource] [max depth] [threads]
+ *
+ * Defaults to the bundled standard suite to depth 5 on all cores. Each
+ * (position, depth) pair is a task; from SPLIT_DEPTH on the task is itself
+ * split over the same pool with ParallelPerft, so one deep position cannot
+ * leave the other threads idle. Counts use bulk counting (Perft.perftBulk);
+ * PerftRunner checks it against the classic recursion.
+ */
+public final class PerftSuite {
+
+    private static final int DEFAULT_MAX_DEPTH = 5;
+
+    // depths from here on are split across the pool instead of run as one task
+    private static final int SPLIT_DEPTH = 4;
+
+    private PerftSuite() {}
+
+    public static void main(String[] args) {
+        String source = args.length > 0 ? args[0] : EpdReader.STANDARD_RESOURCE;
+        int maxDepth = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_MAX_DEPTH;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : ParallelPerft.defaultThreads();
+
+        System.out.printf("=== Perft suite %s: depth <= %d, %d threads ===%n", source, maxDepth, threads);
+
+        boolean ok = run(source, new Masks(), maxDepth, threads);
+        System.exit(ok ? 0 : 1);
+    }
+
+    /** One position's counts, each depth still running in the pool. */
+    private static final class Result {
+        final PerftPosition pos;
+        final List<ForkJoinTask<Long>> counts = new ArrayList<>();
+
+        Result(PerftPosition pos) {
+            this.pos = pos;
+        }
+    }
+
+    /**
+     * Runs an EPD file or resource; positions are submitted as they are read.
+     * @return true if every count up to maxDepth matched
+     */
+    public static boolean run(String source, Masks masks, int maxDepth, int threads) {
+        return run(out -> EpdReader.read(source, out), masks, maxDepth, threads);
+    }
+
+    public static boolean run(List<PerftPosition> positions, Masks masks, int maxDepth, int threads) {
+        return run(positions::forEach, masks, maxDepth, threads);
+    }
+
+    private static boolean run(Consumer<Consumer<PerftPosition>> source, Masks masks, int maxDepth, int threads) {
+        long start = System.nanoTime();
+        List<Result> results = new ArrayList<>();
+
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, threads));
+        try {
+            source.accept(pos -> results.add(submit(pool, pos, masks, maxDepth)));
+            for (Result r : results) {
+                for (ForkJoinTask<Long> t : r.counts) t.join();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        long ms = (System.nanoTime() - start) / 1_000_000L;
+        long totalNodes = 0;
+        int failures = 0;
+
+        for (Result r : results) {
+            System.out.println("=== " + r.pos.name + " ===");
+
+            for (int depth = 1; depth <= r.counts.size(); depth++) {
+                long got = r.counts.get(depth - 1).join();
+                long expected = r.pos.expected[depth];
+                totalNodes += got;
+
+                String status = (got == expected) ? "OK" : "MISMATCH";
+                if (got != expected) failures++;
+                System.out.printf("Depth %d: got=%d, expected=%d -> %s%n", depth, got, expected, status);
+            }
+        }
+
+        double nps = ms > 0 ? (totalNodes * 1000.0) / ms : totalNodes;
+        System.out.printf("%s: %d positions, %d mismatches, nodes=%d time=%dms nps=%.0f%n",
+                failures == 0 ? "PASS" : "FAIL", results.size(), failures, totalNodes, ms, nps);
+        return failures == 0;
+    }
+
+    private static Result submit(ForkJoinPool pool, PerftPosition pos, Masks masks, int maxDepth) {
+        Result r = new Result(pos);
+        int depths = Math.min(maxDepth, pos.expected.length - 1);
+
+        for (int depth = 1; depth <= depths; depth++) {
+            final int d = depth;
+            r.counts.add(pool.submit(() -> {
+                Board board = new Board(masks);
+                board.loadFen(pos.fen);
+                if (d < SPLIT_DEPTH) return Perft.perftBulk(board, masks, d);
+                return ParallelPerft.divide(board, d, pool, true).total();
+            }));
+        }
+        return r;
+    }
+}